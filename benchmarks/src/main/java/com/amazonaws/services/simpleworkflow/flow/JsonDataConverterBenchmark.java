@@ -0,0 +1,100 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization of method arguments the way workflow and activity clients
+ * pass them: an Object[] with a list of beans.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JsonDataConverterBenchmark {
+
+    public static class Item {
+
+        private String name;
+
+        private long quantity;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public long getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(long quantity) {
+            this.quantity = quantity;
+        }
+    }
+
+    @Param({ "1", "100" })
+    public int items;
+
+    private DataConverter converter;
+
+    private Object[] arguments;
+
+    private String serialized;
+
+    @Setup
+    public void setUp() {
+        converter = new JsonDataConverter();
+        List<Item> list = new ArrayList<Item>();
+        for (int i = 0; i < items; i++) {
+            Item item = new Item();
+            item.setName("item" + i);
+            item.setQuantity(i);
+            list.add(item);
+        }
+        arguments = new Object[] { "order", list };
+        serialized = converter.toData(arguments);
+    }
+
+    @Benchmark
+    public String toData() {
+        return converter.toData(arguments);
+    }
+
+    @Benchmark
+    public Object[] fromData() {
+        return converter.fromData(serialized, Object[].class);
+    }
+}
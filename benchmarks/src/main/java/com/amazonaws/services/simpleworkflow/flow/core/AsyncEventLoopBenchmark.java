@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creation and execution of tasks by the {@link AsyncScope} event loop.
+ * Async stack traces are disabled to measure the loop itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AsyncEventLoopBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int tasks;
+
+    @Param({ "false", "true" })
+    public boolean singleThreaded;
+
+    /**
+     * Tasks that are ready to run as soon as they are created.
+     */
+    @Benchmark
+    public int independentTasks() throws Throwable {
+        final int[] executed = new int[1];
+        AsyncScope scope = new AsyncScope(true, true, singleThreaded) {
+
+            @Override
+            protected void doAsync() throws Throwable {
+                for (int i = 0; i < tasks; i++) {
+                    new Task() {
+
+                        @Override
+                        protected void doExecute() throws Throwable {
+                            executed[0]++;
+                        }
+                    };
+                }
+            }
+        };
+        scope.eventLoop();
+        return executed[0];
+    }
+
+    /**
+     * Each task waits for the promise set by the previous one, so every task
+     * is scheduled by a promise callback.
+     */
+    @Benchmark
+    public int chainedTasks() throws Throwable {
+        final int[] executed = new int[1];
+        AsyncScope scope = new AsyncScope(true, true, singleThreaded) {
+
+            @Override
+            protected void doAsync() throws Throwable {
+                Promise<Void> previous = Promise.Void();
+                for (int i = 0; i < tasks; i++) {
+                    final Settable<Void> done = new Settable<Void>();
+                    new Task(previous) {
+
+                        @Override
+                        protected void doExecute() throws Throwable {
+                            executed[0]++;
+                            done.set(null);
+                        }
+                    };
+                    previous = done;
+                }
+            }
+        };
+        scope.eventLoop();
+        return executed[0];
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Allocation and callback dispatch of {@link Settable}, of settables chained to
+ * a promise and of promises that combine other promises.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PromiseBenchmark {
+
+    private static final Runnable NOOP = new Runnable() {
+
+        @Override
+        public void run() {
+        }
+    };
+
+    @Param({ "1", "10", "100", "10000" })
+    public int size;
+
+    @Benchmark
+    public Settable<String> settableWithCallbacks() {
+        Settable<String> result = new Settable<String>();
+        for (int i = 0; i < size; i++) {
+            result.addCallback(NOOP);
+        }
+        result.set("value");
+        return result;
+    }
+
+    /**
+     * Settables chained to the same promise, as results of an asynchronous
+     * method are. Each chain adds a callback to the promise.
+     */
+    @Benchmark
+    public boolean chain() {
+        Settable<String> source = new Settable<String>();
+        Settable<String>[] values = newSettables();
+        for (Settable<String> value : values) {
+            value.chain(source);
+        }
+        source.set("value");
+        return values[size - 1].isReady();
+    }
+
+    @Benchmark
+    public boolean andPromise() {
+        Settable<String>[] values = newSettables();
+        AndPromise result = new AndPromise(values);
+        setAll(values);
+        return result.isReady();
+    }
+
+    @Benchmark
+    public List<String> allOf() {
+        Settable<String>[] values = newSettables();
+        Promise<List<String>> result = Promises.allOf(Arrays.asList(values));
+        setAll(values);
+        return result.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Settable<String>[] newSettables() {
+        Settable<String>[] result = new Settable[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = new Settable<String>();
+        }
+        return result;
+    }
+
+    private static void setAll(Settable<String>[] values) {
+        for (Settable<String> value : values) {
+            value.set("value");
+        }
+    }
+}
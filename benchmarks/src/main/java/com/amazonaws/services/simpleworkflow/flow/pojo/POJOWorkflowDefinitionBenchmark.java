@@ -0,0 +1,83 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.pojo;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.services.simpleworkflow.flow.DataConverter;
+import com.amazonaws.services.simpleworkflow.flow.JsonDataConverter;
+import com.amazonaws.services.simpleworkflow.flow.core.AsyncScope;
+import com.amazonaws.services.simpleworkflow.flow.core.Promise;
+
+/**
+ * Invocation of a workflow implementation method through
+ * {@link POJOWorkflowDefinition#execute(String)}: input deserialization,
+ * reflective call and result serialization inside an event loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class POJOWorkflowDefinitionBenchmark {
+
+    public static class GreeterWorkflowImpl {
+
+        public Promise<String> greet(String name, int count) {
+            return Promise.asPromise(name + count);
+        }
+    }
+
+    private POJOWorkflowDefinition definition;
+
+    private String input;
+
+    @Setup
+    public void setUp() throws Exception {
+        DataConverter converter = new JsonDataConverter();
+        MethodConverterPair workflowMethod = new MethodConverterPair(GreeterWorkflowImpl.class.getMethod("greet",
+                String.class, int.class), null);
+        definition = new POJOWorkflowDefinition(new GreeterWorkflowImpl(), workflowMethod,
+                Collections.<String, MethodConverterPair> emptyMap(), null, converter, null);
+        input = converter.toData(new Object[] { "world", 3 });
+    }
+
+    @Benchmark
+    public String execute() throws Throwable {
+        final Promise<?>[] result = new Promise<?>[1];
+        AsyncScope scope = new AsyncScope(true, true, true) {
+
+            @Override
+            protected void doAsync() throws Throwable {
+                result[0] = definition.execute(input);
+            }
+        };
+        scope.eventLoop();
+        return (String) result[0].get();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.services.simpleworkflow.model.RespondDecisionTaskCompletedRequest;
+
+/**
+ * Full replay of a synthetic history through {@link DecisionTaskPoller} and
+ * {@link AsyncDecisionTaskHandler}. The service is an in memory stub, so the
+ * result is the decider cost only: history pagination and conversion, event
+ * dispatch, decision state machines and workflow code.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DecisionTaskReplayBenchmark {
+
+    /**
+     * Maximum number of events in a page returned by the service.
+     */
+    private static final int PAGE_SIZE = 1000;
+
+    private static final int BATCH_SIZE = 10;
+
+    @Param({ "activities", "timers", "childWorkflows", "signals", "mixed", "multiPage" })
+    public String scenario;
+
+    @Param({ "10", "100", "1000" })
+    public int size;
+
+    private StubAmazonSimpleWorkflow service;
+
+    private DecisionTaskPoller poller;
+
+    @Setup
+    public void setUp() {
+        SyntheticHistory history;
+        int pageSize = PAGE_SIZE;
+        if (scenario.equals("activities")) {
+            history = new SyntheticHistory(size, 0, 0, 0, BATCH_SIZE);
+        }
+        else if (scenario.equals("timers")) {
+            history = new SyntheticHistory(0, size, 0, 0, BATCH_SIZE);
+        }
+        else if (scenario.equals("childWorkflows")) {
+            history = new SyntheticHistory(0, 0, size, 0, BATCH_SIZE);
+        }
+        else if (scenario.equals("signals")) {
+            history = new SyntheticHistory(1, 0, 0, size, BATCH_SIZE);
+        }
+        else if (scenario.equals("mixed")) {
+            history = new SyntheticHistory(size, size, size, size, BATCH_SIZE);
+        }
+        else if (scenario.equals("multiPage")) {
+            history = new SyntheticHistory(size, 0, 0, 0, BATCH_SIZE);
+            pageSize = 100;
+        }
+        else {
+            throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        }
+        service = new StubAmazonSimpleWorkflow(history, pageSize);
+        AsyncDecisionTaskHandler handler = new AsyncDecisionTaskHandler(history.getWorkflowDefinitionFactoryFactory());
+        poller = new DecisionTaskPoller(service.getService(), "SyntheticDomain", SyntheticHistory.TASK_LIST, handler);
+    }
+
+    @Benchmark
+    public RespondDecisionTaskCompletedRequest replay() throws Exception {
+        if (!poller.pollAndProcessSingleTask()) {
+            throw new IllegalStateException("Nothing polled");
+        }
+        return service.getLastCompletion();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.services.simpleworkflow.model.Decision;
+import com.amazonaws.services.simpleworkflow.model.ScheduleActivityTaskDecisionAttributes;
+import com.amazonaws.services.simpleworkflow.model.TaskList;
+
+/**
+ * Cost of collecting decisions of a decision task that schedules the given
+ * number of activities.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DecisionsHelperBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int activities;
+
+    private ScheduleActivityTaskDecisionAttributes[] schedules;
+
+    @Setup
+    public void setUp() {
+        schedules = new ScheduleActivityTaskDecisionAttributes[activities];
+        TaskList taskList = new TaskList().withName(SyntheticHistory.TASK_LIST);
+        for (int i = 0; i < activities; i++) {
+            schedules[i] = new ScheduleActivityTaskDecisionAttributes().withActivityId(String.valueOf(i + 1)).withActivityType(
+                    SyntheticHistory.ACTIVITY_TYPE).withTaskList(taskList).withInput("[\"java.lang.Object[]\",[]]");
+        }
+    }
+
+    @Benchmark
+    public List<Decision> scheduleAndGetDecisions() {
+        DecisionsHelper decisions = newDecisionsHelper();
+        return decisions.getDecisions();
+    }
+
+    /**
+     * Includes the transition of all the decisions into the sent state that
+     * happens once per decision task.
+     */
+    @Benchmark
+    public List<Decision> scheduleAndHandleDecisionTaskStarted() {
+        DecisionsHelper decisions = newDecisionsHelper();
+        List<Decision> result = decisions.getDecisions();
+        decisions.handleDecisionTaskStartedEvent();
+        return result;
+    }
+
+    private DecisionsHelper newDecisionsHelper() {
+        DecisionsHelper result = new DecisionsHelper();
+        for (ScheduleActivityTaskDecisionAttributes schedule : schedules) {
+            result.scheduleActivityTask(schedule);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import com.amazonaws.services.simpleworkflow.AmazonSimpleWorkflow;
+import com.amazonaws.services.simpleworkflow.model.DecisionTask;
+import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
+import com.amazonaws.services.simpleworkflow.model.PollForDecisionTaskRequest;
+import com.amazonaws.services.simpleworkflow.model.RespondDecisionTaskCompletedRequest;
+
+/**
+ * In memory {@link AmazonSimpleWorkflow} that returns the same synthetic
+ * decision task on every poll, split into pages of the given size, and keeps
+ * the last decision task completion. Other operations are not supported.
+ */
+public class StubAmazonSimpleWorkflow implements InvocationHandler {
+
+    private final SyntheticHistory history;
+
+    private final int pageSize;
+
+    private final AmazonSimpleWorkflow service;
+
+    private volatile RespondDecisionTaskCompletedRequest lastCompletion;
+
+    public StubAmazonSimpleWorkflow(SyntheticHistory history, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("0 or negative pageSize");
+        }
+        this.history = history;
+        this.pageSize = pageSize;
+        service = (AmazonSimpleWorkflow) Proxy.newProxyInstance(AmazonSimpleWorkflow.class.getClassLoader(),
+                new Class<?>[] { AmazonSimpleWorkflow.class }, this);
+    }
+
+    public AmazonSimpleWorkflow getService() {
+        return service;
+    }
+
+    public RespondDecisionTaskCompletedRequest getLastCompletion() {
+        return lastCompletion;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (name.equals("pollForDecisionTask")) {
+            return pollForDecisionTask((PollForDecisionTaskRequest) args[0]);
+        }
+        if (name.equals("respondDecisionTaskCompleted")) {
+            lastCompletion = (RespondDecisionTaskCompletedRequest) args[0];
+            return null;
+        }
+        if (name.equals("toString")) {
+            return "StubAmazonSimpleWorkflow[events=" + history.getEvents().size() + ", pageSize=" + pageSize + "]";
+        }
+        if (name.equals("hashCode")) {
+            return System.identityHashCode(proxy);
+        }
+        if (name.equals("equals")) {
+            return proxy == args[0];
+        }
+        throw new UnsupportedOperationException(name);
+    }
+
+    /**
+     * A new task instance is returned on every call as the decider clears
+     * events of the pages it has processed.
+     */
+    private DecisionTask pollForDecisionTask(PollForDecisionTaskRequest request) {
+        String token = request.getNextPageToken();
+        int page = token == null ? 0 : Integer.parseInt(token);
+        List<HistoryEvent> events = history.getEvents();
+        int from = page * pageSize;
+        int to = Math.min(from + pageSize, events.size());
+        DecisionTask result = new DecisionTask();
+        result.setTaskToken("syntheticTaskToken");
+        result.setWorkflowExecution(history.getWorkflowExecution());
+        result.setWorkflowType(SyntheticHistory.WORKFLOW_TYPE);
+        result.setStartedEventId(history.getStartedEventId());
+        result.setPreviousStartedEventId(history.getPreviousStartedEventId());
+        result.setEvents(events.subList(from, to));
+        if (to < events.size()) {
+            result.setNextPageToken(String.valueOf(page + 1));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import com.amazonaws.services.simpleworkflow.flow.DecisionContext;
+import com.amazonaws.services.simpleworkflow.flow.WorkflowTypeRegistrationOptions;
+import com.amazonaws.services.simpleworkflow.flow.core.Functor;
+import com.amazonaws.services.simpleworkflow.flow.core.Promise;
+import com.amazonaws.services.simpleworkflow.flow.core.Promises;
+import com.amazonaws.services.simpleworkflow.flow.core.Settable;
+import com.amazonaws.services.simpleworkflow.flow.core.Task;
+import com.amazonaws.services.simpleworkflow.flow.generic.ExecuteActivityParameters;
+import com.amazonaws.services.simpleworkflow.flow.generic.StartChildWorkflowExecutionParameters;
+import com.amazonaws.services.simpleworkflow.flow.generic.StartChildWorkflowReply;
+import com.amazonaws.services.simpleworkflow.flow.generic.WorkflowDefinition;
+import com.amazonaws.services.simpleworkflow.flow.generic.WorkflowDefinitionFactory;
+import com.amazonaws.services.simpleworkflow.flow.generic.WorkflowDefinitionFactoryFactory;
+import com.amazonaws.services.simpleworkflow.model.ActivityTaskCompletedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ActivityTaskScheduledEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ActivityTaskStartedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ActivityType;
+import com.amazonaws.services.simpleworkflow.model.ChildWorkflowExecutionCompletedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ChildWorkflowExecutionStartedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.DecisionTaskCompletedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.DecisionTaskScheduledEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.DecisionTaskStartedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.EventType;
+import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
+import com.amazonaws.services.simpleworkflow.model.StartChildWorkflowExecutionInitiatedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.TaskList;
+import com.amazonaws.services.simpleworkflow.model.TimerFiredEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.TimerStartedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.WorkflowExecution;
+import com.amazonaws.services.simpleworkflow.model.WorkflowExecutionSignaledEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.WorkflowExecutionStartedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.WorkflowType;
+
+/**
+ * Generates a history of a workflow execution together with the workflow
+ * definition that replays it deterministically.
+ * <p>
+ * The workflow runs in rounds. Each round starts up to batchSize activities,
+ * timers or child workflows in a single decision and waits for all of them
+ * to complete before the next round. Activities go first, then timers, then
+ * child workflows. Signals are spread evenly between the rounds. The last
+ * event is DecisionTaskStarted of the decision that completes the workflow.
+ */
+public class SyntheticHistory {
+
+    public static final WorkflowType WORKFLOW_TYPE = new WorkflowType().withName("SyntheticWorkflow").withVersion("1.0");
+
+    public static final WorkflowType CHILD_WORKFLOW_TYPE = new WorkflowType().withName("SyntheticChildWorkflow").withVersion(
+            "1.0");
+
+    public static final ActivityType ACTIVITY_TYPE = new ActivityType().withName("SyntheticActivity").withVersion("1.0");
+
+    public static final String TASK_LIST = "SyntheticTaskList";
+
+    public static final String SIGNAL_NAME = "syntheticSignal";
+
+    private static final String PAYLOAD = "[\"java.lang.Object[]\",[\"synthetic payload\"]]";
+
+    private static final String IDENTITY = "synthetic-worker";
+
+    private static final long TIMER_SECONDS = 60;
+
+    private enum Kind {
+        ACTIVITY, TIMER, CHILD_WORKFLOW
+    }
+
+    private static final class Round {
+
+        private final Kind kind;
+
+        private final int count;
+
+        private Round(Kind kind, int count) {
+            this.kind = kind;
+            this.count = count;
+        }
+    }
+
+    private final List<Round> rounds = new ArrayList<Round>();
+
+    private final List<HistoryEvent> events = new ArrayList<HistoryEvent>();
+
+    private final WorkflowExecution workflowExecution = new WorkflowExecution().withWorkflowId("synthetic").withRunId(
+            "syntheticRunId");
+
+    private final long timestamp = System.currentTimeMillis();
+
+    private long previousStartedEventId;
+
+    private long startedEventId;
+
+    /**
+     * @param activities
+     *            number of activities to execute
+     * @param timers
+     *            number of timers to fire
+     * @param childWorkflows
+     *            number of child workflows to execute
+     * @param signals
+     *            number of signals to deliver to the workflow
+     * @param batchSize
+     *            maximum number of activities, timers or child workflows
+     *            started by a single decision
+     */
+    public SyntheticHistory(int activities, int timers, int childWorkflows, int signals, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("0 or negative batchSize");
+        }
+        addRounds(Kind.ACTIVITY, activities, batchSize);
+        addRounds(Kind.TIMER, timers, batchSize);
+        addRounds(Kind.CHILD_WORKFLOW, childWorkflows, batchSize);
+        if (rounds.isEmpty() && signals > 0) {
+            throw new IllegalArgumentException("signals require at least one activity, timer or child workflow");
+        }
+        generate(signals);
+    }
+
+    private void addRounds(Kind kind, int count, int batchSize) {
+        for (int remaining = count; remaining > 0; remaining -= batchSize) {
+            rounds.add(new Round(kind, Math.min(remaining, batchSize)));
+        }
+    }
+
+    public List<HistoryEvent> getEvents() {
+        return Collections.unmodifiableList(events);
+    }
+
+    public WorkflowExecution getWorkflowExecution() {
+        return workflowExecution;
+    }
+
+    /**
+     * @return id of the last DecisionTaskStarted event
+     */
+    public long getStartedEventId() {
+        return startedEventId;
+    }
+
+    /**
+     * @return id of the DecisionTaskStarted event that precedes the last one
+     */
+    public long getPreviousStartedEventId() {
+        return previousStartedEventId;
+    }
+
+    /**
+     * @return factory of the workflow that replays the generated history
+     */
+    public WorkflowDefinitionFactoryFactory getWorkflowDefinitionFactoryFactory() {
+        final WorkflowDefinitionFactory factory = new WorkflowDefinitionFactory() {
+
+            @Override
+            public WorkflowTypeRegistrationOptions getWorkflowRegistrationOptions() {
+                return null;
+            }
+
+            @Override
+            public WorkflowDefinition getWorkflowDefinition(DecisionContext context) throws Exception {
+                return new SyntheticWorkflowDefinition(context);
+            }
+
+            @Override
+            public void deleteWorkflowDefinition(WorkflowDefinition instance) {
+            }
+
+            @Override
+            public WorkflowType getWorkflowType() {
+                return WORKFLOW_TYPE;
+            }
+        };
+        return new WorkflowDefinitionFactoryFactory() {
+
+            @Override
+            public WorkflowDefinitionFactory getWorkflowDefinitionFactory(WorkflowType workflowType) {
+                return factory;
+            }
+
+            @Override
+            public Iterable<WorkflowType> getWorkflowTypesToRegister() {
+                return Collections.singletonList(WORKFLOW_TYPE);
+            }
+        };
+    }
+
+    /**
+     * Ids of activities and timers are generated by DecisionsHelper from the
+     * same counter in the order of their creation. The same order is used
+     * here.
+     */
+    private void generate(int signals) {
+        addEvent(EventType.WorkflowExecutionStarted).setWorkflowExecutionStartedEventAttributes(
+                new WorkflowExecutionStartedEventAttributes().withWorkflowType(WORKFLOW_TYPE).withTaskList(
+                        new TaskList().withName(TASK_LIST)).withInput(PAYLOAD));
+        addDecisionTask();
+        long nextId = 0;
+        int childCount = 0;
+        for (int round = 0; round < rounds.size(); round++) {
+            Round r = rounds.get(round);
+            HistoryEvent decisionCompletedEvent = addEvent(EventType.DecisionTaskCompleted);
+            decisionCompletedEvent.setDecisionTaskCompletedEventAttributes(
+                    new DecisionTaskCompletedEventAttributes().withStartedEventId(startedEventId).withScheduledEventId(
+                            startedEventId - 1));
+            long[] initiatedEventIds = new long[r.count];
+            String[] ids = new String[r.count];
+            for (int i = 0; i < r.count; i++) {
+                HistoryEvent initiated;
+                switch (r.kind) {
+                case ACTIVITY:
+                    ids[i] = String.valueOf(++nextId);
+                    initiated = addEvent(EventType.ActivityTaskScheduled);
+                    initiated.setActivityTaskScheduledEventAttributes(new ActivityTaskScheduledEventAttributes().withActivityId(
+                            ids[i]).withActivityType(ACTIVITY_TYPE).withTaskList(new TaskList().withName(TASK_LIST)).withInput(
+                            PAYLOAD).withDecisionTaskCompletedEventId(decisionCompletedEvent.getEventId()));
+                    break;
+                case TIMER:
+                    ids[i] = String.valueOf(++nextId);
+                    initiated = addEvent(EventType.TimerStarted);
+                    initiated.setTimerStartedEventAttributes(new TimerStartedEventAttributes().withTimerId(ids[i]).withStartToFireTimeout(
+                            String.valueOf(TIMER_SECONDS)).withDecisionTaskCompletedEventId(decisionCompletedEvent.getEventId()));
+                    break;
+                default:
+                    ids[i] = "child-" + childCount++;
+                    initiated = addEvent(EventType.StartChildWorkflowExecutionInitiated);
+                    initiated.setStartChildWorkflowExecutionInitiatedEventAttributes(new StartChildWorkflowExecutionInitiatedEventAttributes().withWorkflowId(
+                            ids[i]).withWorkflowType(CHILD_WORKFLOW_TYPE).withTaskList(new TaskList().withName(TASK_LIST)).withInput(
+                            PAYLOAD).withDecisionTaskCompletedEventId(decisionCompletedEvent.getEventId()));
+                }
+                initiatedEventIds[i] = initiated.getEventId();
+            }
+            // Signals arrive while the round is in progress, so all of them are
+            // delivered before the workflow completes
+            for (int signal = round; signal < signals; signal += rounds.size()) {
+                addEvent(EventType.WorkflowExecutionSignaled).setWorkflowExecutionSignaledEventAttributes(
+                        new WorkflowExecutionSignaledEventAttributes().withSignalName(SIGNAL_NAME).withInput(PAYLOAD));
+            }
+            for (int i = 0; i < r.count; i++) {
+                switch (r.kind) {
+                case ACTIVITY:
+                    HistoryEvent activityStartedEvent = addEvent(EventType.ActivityTaskStarted);
+                    activityStartedEvent.setActivityTaskStartedEventAttributes(
+                            new ActivityTaskStartedEventAttributes().withScheduledEventId(initiatedEventIds[i]).withIdentity(IDENTITY));
+                    addEvent(EventType.ActivityTaskCompleted).setActivityTaskCompletedEventAttributes(
+                            new ActivityTaskCompletedEventAttributes().withScheduledEventId(initiatedEventIds[i]).withStartedEventId(
+                                    activityStartedEvent.getEventId()).withResult(PAYLOAD));
+                    break;
+                case TIMER:
+                    addEvent(EventType.TimerFired).setTimerFiredEventAttributes(
+                            new TimerFiredEventAttributes().withTimerId(ids[i]).withStartedEventId(initiatedEventIds[i]));
+                    break;
+                default:
+                    WorkflowExecution child = new WorkflowExecution().withWorkflowId(ids[i]).withRunId(ids[i] + "RunId");
+                    HistoryEvent childStartedEvent = addEvent(EventType.ChildWorkflowExecutionStarted);
+                    childStartedEvent.setChildWorkflowExecutionStartedEventAttributes(
+                            new ChildWorkflowExecutionStartedEventAttributes().withWorkflowExecution(child).withWorkflowType(
+                                    CHILD_WORKFLOW_TYPE).withInitiatedEventId(initiatedEventIds[i]));
+                    addEvent(EventType.ChildWorkflowExecutionCompleted).setChildWorkflowExecutionCompletedEventAttributes(
+                            new ChildWorkflowExecutionCompletedEventAttributes().withWorkflowExecution(child).withWorkflowType(
+                                    CHILD_WORKFLOW_TYPE).withResult(PAYLOAD).withInitiatedEventId(initiatedEventIds[i]).withStartedEventId(
+                                    childStartedEvent.getEventId()));
+                }
+            }
+            addDecisionTask();
+        }
+    }
+
+    private void addDecisionTask() {
+        HistoryEvent scheduledEvent = addEvent(EventType.DecisionTaskScheduled);
+        scheduledEvent.setDecisionTaskScheduledEventAttributes(
+                new DecisionTaskScheduledEventAttributes().withTaskList(new TaskList().withName(TASK_LIST)));
+        previousStartedEventId = startedEventId;
+        HistoryEvent startedEvent = addEvent(EventType.DecisionTaskStarted);
+        startedEvent.setDecisionTaskStartedEventAttributes(new DecisionTaskStartedEventAttributes().withScheduledEventId(
+                scheduledEvent.getEventId()).withIdentity(IDENTITY));
+        startedEventId = startedEvent.getEventId();
+    }
+
+    private HistoryEvent addEvent(EventType eventType) {
+        long eventId = events.size() + 1;
+        HistoryEvent event = new HistoryEvent().withEventId(eventId).withEventType(eventType).withEventTimestamp(
+                new Date(timestamp + eventId));
+        events.add(event);
+        return event;
+    }
+
+    private final class SyntheticWorkflowDefinition extends WorkflowDefinition {
+
+        private final DecisionContext context;
+
+        private int round;
+
+        private int childCount;
+
+        private int signalsReceived;
+
+        private SyntheticWorkflowDefinition(DecisionContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public Promise<String> execute(String input) {
+            Settable<String> result = new Settable<String>();
+            nextRound(result);
+            return result;
+        }
+
+        private void nextRound(final Settable<String> result) {
+            if (round == rounds.size()) {
+                result.set("signalsReceived=" + signalsReceived);
+                return;
+            }
+            Round r = rounds.get(round++);
+            List<Promise<?>> started = new ArrayList<Promise<?>>(r.count);
+            for (int i = 0; i < r.count; i++) {
+                started.add(start(r.kind));
+            }
+            new Task(Promises.allOf(started)) {
+
+                @Override
+                protected void doExecute() throws Throwable {
+                    nextRound(result);
+                }
+            };
+        }
+
+        private Promise<?> start(Kind kind) {
+            switch (kind) {
+            case ACTIVITY:
+                ExecuteActivityParameters activity = new ExecuteActivityParameters();
+                activity.setActivityType(ACTIVITY_TYPE);
+                activity.setTaskList(TASK_LIST);
+                activity.setInput(PAYLOAD);
+                return context.getActivityClient().scheduleActivityTask(activity);
+            case TIMER:
+                return context.getWorkflowClock().createTimer(TIMER_SECONDS);
+            default:
+                StartChildWorkflowExecutionParameters child = new StartChildWorkflowExecutionParameters();
+                child.setWorkflowId("child-" + childCount++);
+                child.setWorkflowType(CHILD_WORKFLOW_TYPE);
+                child.setTaskList(TASK_LIST);
+                child.setInput(PAYLOAD);
+                final Promise<StartChildWorkflowReply> reply = context.getWorkflowClient().startChildWorkflow(child);
+                return new Functor<String>(reply) {
+
+                    @Override
+                    protected Promise<String> doExecute() throws Throwable {
+                        return reply.get().getResult();
+                    }
+                };
+            }
+        }
+
+        @Override
+        public void signalRecieved(String signalName, String input) {
+            signalsReceived++;
+        }
+
+        @Override
+        public String getWorkflowState() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Contention of {@link Throttler} and {@link TokenBucketThrottler} shared by
+ * 64 poller threads. The rate is far above any poll rate, so the result
+ * reflects the cost of acquiring a permit rather than the configured limit.
+ * It is not higher as {@link Throttler} keeps a timestamp per permit of the
+ * rate interval.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(64)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ThrottlerBenchmark {
+
+    private static final double RATE_PER_SECOND = 1000000;
+
+    private static final long RATE_INTERVAL_MILLISECONDS = 1000;
+
+    private Throttler throttler;
+
+    private TokenBucketThrottler tokenBucketThrottler;
+
+    @Setup
+    public void setUp() {
+        throttler = new Throttler("benchmark", RATE_PER_SECOND, RATE_INTERVAL_MILLISECONDS);
+        tokenBucketThrottler = new TokenBucketThrottler("benchmark", RATE_PER_SECOND, RATE_INTERVAL_MILLISECONDS);
+    }
+
+    @Benchmark
+    public void throttler() throws InterruptedException {
+        throttler.throttle();
+    }
+
+    @Benchmark
+    public void tokenBucketThrottler() throws InterruptedException {
+        tokenBucketThrottler.throttle();
+    }
+}
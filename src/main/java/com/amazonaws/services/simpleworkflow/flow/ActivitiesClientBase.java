@@ -14,8 +14,13 @@
  */
 package com.amazonaws.services.simpleworkflow.flow;
 
+import java.util.Iterator;
+import java.util.List;
+
 import com.amazonaws.services.simpleworkflow.flow.core.Promise;
+import com.amazonaws.services.simpleworkflow.flow.generic.ExecuteActivityParameters;
 import com.amazonaws.services.simpleworkflow.flow.generic.GenericActivityClient;
+import com.amazonaws.services.simpleworkflow.flow.generic.WindowedActivityScheduler;
 import com.amazonaws.services.simpleworkflow.model.ActivityType;
 
 public abstract class ActivitiesClientBase implements ActivitiesClient {
@@ -37,6 +42,21 @@ public abstract class ActivitiesClientBase implements ActivitiesClient {
         return dynamicActivitiesClient.scheduleActivity(activityType, arguments, optionsOverride, returnType, waitFor);
     }
 
+    /**
+     * Schedules activities keeping at most
+     * {@link WindowedActivityScheduler#DEFAULT_MAXIMUM_IN_FLIGHT} of them open
+     * at a time.
+     */
+    protected Promise<List<String>> scheduleActivities(Iterator<ExecuteActivityParameters> parameters,
+            Promise<?>... waitFor) {
+        return scheduleActivities(parameters, WindowedActivityScheduler.DEFAULT_MAXIMUM_IN_FLIGHT, waitFor);
+    }
+
+    protected Promise<List<String>> scheduleActivities(Iterator<ExecuteActivityParameters> parameters,
+            int maximumInFlight, Promise<?>... waitFor) {
+        return dynamicActivitiesClient.scheduleActivities(parameters, maximumInFlight, waitFor);
+    }
+
     @Override
     public DataConverter getDataConverter() {
         return dynamicActivitiesClient.getDataConverter();
@@ -21,7 +21,10 @@ import java.util.concurrent.TimeUnit;
 import com.amazonaws.services.simpleworkflow.AmazonSimpleWorkflow;
 import com.amazonaws.services.simpleworkflow.flow.generic.ActivityImplementation;
 import com.amazonaws.services.simpleworkflow.flow.pojo.POJOActivityImplementationFactory;
+import com.amazonaws.services.simpleworkflow.flow.worker.BackoffJitter;
 import com.amazonaws.services.simpleworkflow.flow.worker.GenericActivityWorker;
+import com.amazonaws.services.simpleworkflow.flow.worker.GenericWorker;
+import com.amazonaws.services.simpleworkflow.flow.worker.WorkerMetrics;
 import com.amazonaws.services.simpleworkflow.model.ActivityType;
 
 public class ActivityWorker implements WorkerBase {
@@ -88,6 +91,43 @@ public class ActivityWorker implements WorkerBase {
         genericWorker.setTaskExecutorThreadPoolSize(taskExecutorThreadPoolSize);
     }
 
+    public long getHeartbeatMinimumIntervalMillis() {
+        return genericWorker.getHeartbeatMinimumIntervalMillis();
+    }
+
+    /**
+     * @see GenericActivityWorker#setHeartbeatMinimumIntervalMillis(long)
+     */
+    public void setHeartbeatMinimumIntervalMillis(long heartbeatMinimumIntervalMillis) {
+        genericWorker.setHeartbeatMinimumIntervalMillis(heartbeatMinimumIntervalMillis);
+    }
+
+    public WorkerMetrics getMetrics() {
+        return genericWorker.getMetrics();
+    }
+
+    /**
+     * @see GenericActivityWorker#setMetrics(WorkerMetrics)
+     */
+    public void setMetrics(WorkerMetrics metrics) {
+        genericWorker.setMetrics(metrics);
+    }
+
+    public int getTasksInProgress() {
+        return genericWorker.getTasksInProgress();
+    }
+
+    public boolean isUseVirtualThreads() {
+        return genericWorker.isUseVirtualThreads();
+    }
+
+    /**
+     * @see GenericWorker#setUseVirtualThreads(boolean)
+     */
+    public void setUseVirtualThreads(boolean useVirtualThreads) {
+        genericWorker.setUseVirtualThreads(useVirtualThreads);
+    }
+
     @Override
     public boolean shutdownAndAwaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
         return genericWorker.shutdownAndAwaitTermination(timeout, unit);
@@ -218,6 +258,17 @@ public class ActivityWorker implements WorkerBase {
         genericWorker.setPollBackoffCoefficient(backoffCoefficient);
     }
 
+    public BackoffJitter getPollBackoffJitter() {
+        return genericWorker.getPollBackoffJitter();
+    }
+
+    /**
+     * @see GenericWorker#setPollBackoffJitter(BackoffJitter)
+     */
+    public void setPollBackoffJitter(BackoffJitter pollBackoffJitter) {
+        genericWorker.setPollBackoffJitter(pollBackoffJitter);
+    }
+
     @Override
     public int getPollThreadCount() {
         return genericWorker.getPollThreadCount();
@@ -228,6 +279,33 @@ public class ActivityWorker implements WorkerBase {
         genericWorker.setPollThreadCount(threadCount);
     }
 
+    public int getMinimumPollThreadCount() {
+        return genericWorker.getMinimumPollThreadCount();
+    }
+
+    public void setMinimumPollThreadCount(int minimumPollThreadCount) {
+        genericWorker.setMinimumPollThreadCount(minimumPollThreadCount);
+    }
+
+    public int getMaximumPollThreadCount() {
+        return genericWorker.getMaximumPollThreadCount();
+    }
+
+    /**
+     * @see GenericWorker#setMaximumPollThreadCount(int)
+     */
+    public void setMaximumPollThreadCount(int maximumPollThreadCount) {
+        genericWorker.setMaximumPollThreadCount(maximumPollThreadCount);
+    }
+
+    public int getActivePollThreadCount() {
+        return genericWorker.getActivePollThreadCount();
+    }
+
+    public String getPollThreadScalingDecision() {
+        return genericWorker.getPollThreadScalingDecision();
+    }
+
     @Override
     public void setDisableTypeRegistrationOnStart(boolean disableTypeRegistrationOnStart) {
         genericWorker.setDisableTypeRegistrationOnStart(disableTypeRegistrationOnStart);
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of blobs used by {@link OffloadingDataConverter}.
+ * Bounded by the total length of the cached values in characters. Values are
+ * cached per store, as the converter skips storing blobs that are already
+ * cached, so a single cache can be shared by converters that use different
+ * stores.
+ */
+public class BlobCache {
+
+    private static final class Key {
+
+        private final BlobStore store;
+
+        private final String key;
+
+        Key(BlobStore store, String key) {
+            this.store = store;
+            this.key = key;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * store.hashCode() + key.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return key.equals(other.key) && store.equals(other.store);
+        }
+    }
+
+    private final long maximumSize;
+
+    /**
+     * Use access-order to evict least recently used values
+     */
+    private final Map<Key, String> values = new LinkedHashMap<Key, String>(16, 0.75f, true);
+
+    private long size;
+
+    /**
+     * @param maximumSize
+     *            maximum total length in characters of the cached values. 0
+     *            disables caching.
+     */
+    public BlobCache(long maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("negative maximumSize");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * @return <code>null</code> if the key of the store is not cached
+     */
+    public synchronized String get(BlobStore store, String key) {
+        return values.get(new Key(store, key));
+    }
+
+    /**
+     * Caches the value evicting the least recently used ones if necessary.
+     * Values longer than the maximum size are not cached.
+     */
+    public synchronized void put(BlobStore store, String key, String value) {
+        if (value.length() > maximumSize) {
+            return;
+        }
+        String replaced = values.put(new Key(store, key), value);
+        if (replaced != null) {
+            size -= replaced.length();
+        }
+        size += value.length();
+        Iterator<String> iterator = values.values().iterator();
+        while (size > maximumSize) {
+            size -= iterator.next().length();
+            iterator.remove();
+        }
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @return total length in characters of the cached values
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "BlobCache[maximumSize=" + maximumSize + ", size=" + size + ", count=" + values.size() + "]";
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow;
+
+/**
+ * Storage of the values offloaded from the workflow history by
+ * {@link OffloadingDataConverter}. Keys are derived from the content, so the
+ * same key is always stored with the same data and a put of an existing key
+ * can be skipped. Blobs must be kept as long as any history that references
+ * them can be replayed.
+ * <p>
+ * Implementations should define equals and hashCode, so converters created
+ * with separate instances that use the same storage share a cache.
+ * 
+ * @see FileBlobStore
+ */
+public interface BlobStore {
+
+    /**
+     * Stores the data under the given key.
+     * 
+     * @throws DataConverterException
+     *             if the data couldn't be stored
+     */
+    public void put(String key, String data) throws DataConverterException;
+
+    /**
+     * @return data stored under the given key
+     * @throws DataConverterException
+     *             if the key is not found or the data couldn't be read
+     */
+    public String get(String key) throws DataConverterException;
+
+}
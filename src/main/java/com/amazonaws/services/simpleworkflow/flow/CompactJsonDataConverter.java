@@ -0,0 +1,155 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow;
+
+import java.util.Collection;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectMapper.DefaultTypeResolverBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper.DefaultTyping;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.jsontype.TypeIdResolver;
+import com.fasterxml.jackson.databind.jsontype.TypeResolverBuilder;
+import com.fasterxml.jackson.databind.jsontype.impl.ClassNameIdResolver;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+/**
+ * {@link JsonDataConverter} that writes ids from a {@link TypeIdRegistry}
+ * instead of fully qualified class names into the type information of
+ * polymorphic values. Class names are still written for types that are not
+ * registered.
+ * <p>
+ * Both ids and class names are accepted when reading, so histories written by
+ * {@link JsonDataConverter} can be replayed by workers that switched to this
+ * converter. The opposite is not true: make sure that all workers that process
+ * a task list are updated to this converter with the same registry before any
+ * of them starts writing ids.
+ * <p>
+ * To use it through the <code>dataConverter</code> attribute of the
+ * <code>@Activities</code> and <code>@Workflow</code> annotations define a
+ * subclass with a no-argument constructor that passes the application registry.
+ * 
+ * @see TypeIdRegistry
+ */
+public class CompactJsonDataConverter extends JsonDataConverter {
+
+    private final TypeIdRegistry registry;
+
+    /**
+     * Create instance of the converter that uses ids of
+     * {@link TypeIdRegistry#registerCommonJavaTypes()}.
+     */
+    public CompactJsonDataConverter() {
+        this(new TypeIdRegistry().registerCommonJavaTypes());
+    }
+
+    /**
+     * Create instance of the converter that uses the same mapper configuration
+     * as {@link JsonDataConverter#JsonDataConverter()} besides type ids.
+     * 
+     * @param registry
+     *            must not be modified after the first conversion
+     */
+    public CompactJsonDataConverter(TypeIdRegistry registry) {
+        this(createDefaultMapper(), registry);
+    }
+
+    /**
+     * Create instance of the converter that uses {@link ObjectMapper}
+     * configured externally. Its default typing is replaced with the one that
+     * uses the registry.
+     */
+    public CompactJsonDataConverter(ObjectMapper mapper, TypeIdRegistry registry) {
+        super(mapper);
+        if (registry == null) {
+            throw new IllegalArgumentException("null registry");
+        }
+        this.registry = registry;
+        TypeResolverBuilder<?> typing = new RegistryTypeResolverBuilder(registry);
+        typing = typing.init(JsonTypeInfo.Id.CLASS, null);
+        typing = typing.inclusion(JsonTypeInfo.As.WRAPPER_ARRAY);
+        mapper.setDefaultTyping(typing);
+    }
+
+    public TypeIdRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Same as {@link ObjectMapper#enableDefaultTyping(DefaultTyping)} with
+     * {@link DefaultTyping#NON_FINAL} besides type id resolution.
+     */
+    @SuppressWarnings("serial")
+    private static class RegistryTypeResolverBuilder extends DefaultTypeResolverBuilder {
+
+        private final TypeIdRegistry registry;
+
+        RegistryTypeResolverBuilder(TypeIdRegistry registry) {
+            super(DefaultTyping.NON_FINAL);
+            this.registry = registry;
+        }
+
+        @Override
+        protected TypeIdResolver idResolver(MapperConfig<?> config, JavaType baseType, Collection<NamedType> subtypes,
+                boolean forSer, boolean forDeser) {
+            return new RegistryIdResolver(baseType, config.getTypeFactory(), registry);
+        }
+    }
+
+    private static class RegistryIdResolver extends ClassNameIdResolver {
+
+        private final TypeIdRegistry registry;
+
+        RegistryIdResolver(JavaType baseType, TypeFactory typeFactory, TypeIdRegistry registry) {
+            super(baseType, typeFactory);
+            this.registry = registry;
+        }
+
+        @Override
+        public String idFromValue(Object value) {
+            String result = registry.getId(value.getClass());
+            return result == null ? super.idFromValue(value) : result;
+        }
+
+        @Override
+        public String idFromValueAndType(Object value, Class<?> type) {
+            String result = registry.getId(type);
+            return result == null ? super.idFromValueAndType(value, type) : result;
+        }
+
+        @Override
+        public JavaType typeFromId(DatabindContext context, String id) {
+            Class<?> type = registry.getType(id);
+            if (type == null) {
+                return super.typeFromId(context, id);
+            }
+            return context.getTypeFactory().constructSpecializedType(_baseType, type);
+        }
+
+        @Override
+        @Deprecated
+        public JavaType typeFromId(String id) {
+            Class<?> type = registry.getType(id);
+            if (type == null) {
+                return super.typeFromId(id);
+            }
+            return _typeFactory.constructSpecializedType(_baseType, type);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Decorates another converter to compress values which serialized form is
+ * longer than a threshold. Compressed values are GZIP compressed UTF-8 bytes of
+ * the delegate output encoded in Base64 and prefixed with {@link #PREFIX}.
+ * Shorter values and values that don't become shorter after compression are
+ * passed unchanged.
+ * <p>
+ * Values without the prefix are given to the delegate as is, so data written
+ * before switching to this converter is still readable. The delegate must
+ * never produce strings that start with the prefix, which is true for
+ * {@link JsonDataConverter}. All workers that process a task list must be
+ * updated to this converter before any of them starts writing compressed
+ * values.
+ * <p>
+ * The default constructor decorates {@link JsonDataConverter} and makes the
+ * converter usable through the <code>dataConverter</code> attribute of the
+ * <code>@Activities</code> and <code>@Workflow</code> annotations. Define a
+ * subclass with a no-argument constructor to use it with other parameters.
+ */
+public class CompressingDataConverter extends DataConverter {
+
+    /**
+     * Marks compressed values. Can't be the beginning of a JSON document.
+     */
+    public static final String PREFIX = "#gz:";
+
+    public static final int DEFAULT_THRESHOLD = 4096;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final DataConverter delegate;
+
+    private final int threshold;
+
+    public CompressingDataConverter() {
+        this(new JsonDataConverter(), DEFAULT_THRESHOLD);
+    }
+
+    public CompressingDataConverter(DataConverter delegate) {
+        this(delegate, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param threshold
+     *            minimum length of the delegate output in characters that is
+     *            compressed
+     */
+    public CompressingDataConverter(DataConverter delegate, int threshold) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("null delegate");
+        }
+        if (threshold < 0) {
+            throw new IllegalArgumentException("negative threshold");
+        }
+        this.delegate = delegate;
+        this.threshold = threshold;
+    }
+
+    public DataConverter getDelegate() {
+        return delegate;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    @Override
+    public String toData(Object value) throws DataConverterException {
+        String data = delegate.toData(value);
+        if (data == null || data.length() < threshold) {
+            return data;
+        }
+        String compressed = compress(data);
+        return compressed.length() < data.length() ? compressed : data;
+    }
+
+    @Override
+    public <T> T fromData(String content, Class<T> valueType) throws DataConverterException {
+        if (content == null || !content.startsWith(PREFIX)) {
+            return delegate.fromData(content, valueType);
+        }
+        byte[] compressed;
+        try {
+            compressed = Base64.getDecoder().decode(content.substring(PREFIX.length()));
+        }
+        catch (IllegalArgumentException e) {
+            throw new DataConverterException("Invalid Base64 content of the compressed value", e);
+        }
+        try {
+            Reader reader = new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(compressed)), UTF8);
+            try {
+                return delegate.fromData(reader, valueType);
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch (IOException e) {
+            throw new DataConverterException("Failure decompressing value", e);
+        }
+    }
+
+    private static String compress(String data) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length() / 4);
+        try {
+            OutputStream base64 = Base64.getEncoder().wrap(bytes);
+            Writer writer = new OutputStreamWriter(new GZIPOutputStream(base64), UTF8);
+            writer.write(data);
+            writer.close();
+        }
+        catch (IOException e) {
+            // not expected from in-memory streams
+            throw new DataConverterException("Failure compressing value", e);
+        }
+        return PREFIX + new String(bytes.toByteArray(), UTF8);
+    }
+
+}
@@ -14,6 +14,10 @@
  */
 package com.amazonaws.services.simpleworkflow.flow;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
 /**
  * Used by the framework to serialize/deserialize method parameters that need to
  * be sent over the wire. 
@@ -46,4 +50,48 @@ public abstract class DataConverter {
      */
     public abstract <T> T fromData(String content, Class<T> valueType) throws DataConverterException;
 
+    /**
+     * Writes converted value to the given writer. The default implementation
+     * writes the result of {@link #toData(Object)}. Converters that can
+     * produce output incrementally override it to avoid building the whole
+     * serialized value in memory.
+     * 
+     * @throws DataConverterException
+     *             if conversion failed or the writer thrown IOException
+     */
+    public void toData(Object value, Writer writer) throws DataConverterException {
+        String data = toData(value);
+        try {
+            if (data != null) {
+                writer.write(data);
+            }
+        }
+        catch (IOException e) {
+            throw new DataConverterException(e);
+        }
+    }
+
+    /**
+     * Converts data read from the given reader. The default implementation
+     * reads the whole content to a String and calls
+     * {@link #fromData(String, Class)}.
+     * 
+     * @throws DataConverterException
+     *             if conversion failed or the reader thrown IOException
+     */
+    public <T> T fromData(Reader reader, Class<T> valueType) throws DataConverterException {
+        StringBuilder content = new StringBuilder();
+        char[] buffer = new char[4096];
+        try {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                content.append(buffer, 0, read);
+            }
+        }
+        catch (IOException e) {
+            throw new DataConverterException(e);
+        }
+        return fromData(content.toString(), valueType);
+    }
+
 }
@@ -1,11 +1,15 @@
 package com.amazonaws.services.simpleworkflow.flow;
 
+import java.util.Iterator;
+import java.util.List;
+
 import com.amazonaws.services.simpleworkflow.flow.core.Functor;
 import com.amazonaws.services.simpleworkflow.flow.core.Promise;
 import com.amazonaws.services.simpleworkflow.flow.core.Settable;
 import com.amazonaws.services.simpleworkflow.flow.core.TryCatchFinally;
 import com.amazonaws.services.simpleworkflow.flow.generic.ExecuteActivityParameters;
 import com.amazonaws.services.simpleworkflow.flow.generic.GenericActivityClient;
+import com.amazonaws.services.simpleworkflow.flow.generic.WindowedActivityScheduler;
 import com.amazonaws.services.simpleworkflow.model.ActivityType;
 
 public class DynamicActivitiesClientImpl implements DynamicActivitiesClient {
@@ -106,8 +110,8 @@ public class DynamicActivitiesClientImpl implements DynamicActivitiesClient {
             protected void doTry() throws Throwable {
                 ExecuteActivityParameters parameters = new ExecuteActivityParameters();
                 parameters.setActivityType(activityType);
-                String stringInput = dataConverter.toData(arguments);
-                parameters.setInput(stringInput);
+                // converted by the client only if the input is needed
+                parameters.setInput(dataConverter, arguments);
                 final ExecuteActivityParameters _scheduleParameters_ = parameters.createExecuteActivityParametersFromOptions(
                         schedulingOptions, optionsOverride);
 
@@ -161,4 +165,41 @@ public class DynamicActivitiesClientImpl implements DynamicActivitiesClient {
         return result;
     }
 
+    /**
+     * Schedules activities keeping at most maximumInFlight of them open at a
+     * time. Scheduling options of this client are applied to each of the
+     * parameters.
+     * 
+     * @see WindowedActivityScheduler
+     * @return Promise to serialized results in the order of parameters
+     */
+    public Promise<List<String>> scheduleActivities(final Iterator<ExecuteActivityParameters> parameters,
+            int maximumInFlight, Promise<?>... waitFor) {
+        GenericActivityClient client;
+        if (genericClient == null) {
+            client = decisionContextProvider.getDecisionContext().getActivityClient();
+        } else {
+            client = genericClient;
+        }
+        Iterator<ExecuteActivityParameters> withOptions = new Iterator<ExecuteActivityParameters>() {
+
+            @Override
+            public boolean hasNext() {
+                return parameters.hasNext();
+            }
+
+            @Override
+            public ExecuteActivityParameters next() {
+                return parameters.next().createExecuteActivityParametersFromOptions(schedulingOptions, null);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        WorkflowClock clock = decisionContextProvider.getDecisionContext().getWorkflowClock();
+        return WindowedActivityScheduler.scheduleActivityTasks(client, clock, withOptions, maximumInFlight, waitFor);
+    }
+
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * {@link BlobStore} that keeps every blob in a separate file of a directory.
+ * Blobs are written to a temporary file first and then atomically renamed, so a
+ * reader never sees a partially written blob. Suitable for tests and for
+ * workers that share a network file system.
+ */
+public class FileBlobStore implements BlobStore {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final Path directory;
+
+    /**
+     * @param directory
+     *            created if it doesn't exist
+     */
+    public FileBlobStore(File directory) {
+        this.directory = directory.toPath().toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.directory);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("Failure creating " + directory, e);
+        }
+    }
+
+    public File getDirectory() {
+        return directory.toFile();
+    }
+
+    @Override
+    public void put(String key, String data) throws DataConverterException {
+        Path target = resolve(key);
+        if (Files.exists(target)) {
+            return;
+        }
+        try {
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            try {
+                Files.write(temp, data.getBytes(UTF8));
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (FileAlreadyExistsException e) {
+                // stored concurrently by another thread or process
+            }
+            finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        catch (IOException e) {
+            throw new DataConverterException("Failure storing blob \"" + key + "\" to " + directory, e);
+        }
+    }
+
+    @Override
+    public String get(String key) throws DataConverterException {
+        try {
+            return new String(Files.readAllBytes(resolve(key)), UTF8);
+        }
+        catch (NoSuchFileException e) {
+            throw new DataConverterException("Blob \"" + key + "\" not found in " + directory, e);
+        }
+        catch (IOException e) {
+            throw new DataConverterException("Failure reading blob \"" + key + "\" from " + directory, e);
+        }
+    }
+
+    private Path resolve(String key) {
+        if (key.isEmpty() || key.indexOf('/') >= 0 || key.indexOf('\\') >= 0 || key.startsWith(".")) {
+            throw new DataConverterException("Invalid blob key: \"" + key + "\"");
+        }
+        return directory.resolve(key);
+    }
+
+    @Override
+    public int hashCode() {
+        return directory.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof FileBlobStore)) {
+            return false;
+        }
+        return directory.equals(((FileBlobStore) obj).directory);
+    }
+
+    @Override
+    public String toString() {
+        return "FileBlobStore[" + directory + "]";
+    }
+}
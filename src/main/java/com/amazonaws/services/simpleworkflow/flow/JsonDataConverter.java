@@ -15,12 +15,18 @@
 package com.amazonaws.services.simpleworkflow.flow;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectMapper.DefaultTyping;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 
@@ -36,26 +42,52 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
  * disable polymorphic support as it produces much more concise and portable
  * output.
  * 
+ * <p>
+ * {@link ObjectReader} and {@link ObjectWriter} are created once per value
+ * type and reused, so the mapper must not be reconfigured after the first
+ * conversion. All instances created through the default constructor share the
+ * same mapper and readers and writers, so creating a converter per client or
+ * factory is cheap. Subclasses get their own mapper as they might configure
+ * it.
+ * 
  * @author fateev
  */
 public class JsonDataConverter extends DataConverter {
 
+    /**
+     * Limits number of cached readers and writers. Values of types above the
+     * limit are converted by not cached readers and writers.
+     */
+    private static final int MAXIMUM_CACHED_TYPES = 1000;
+
+    private static final ObjectMapper defaultMapper = createDefaultMapper();
+
+    private static final ConcurrentMap<Class<?>, ObjectReader> defaultReaders = new ConcurrentHashMap<Class<?>, ObjectReader>();
+
+    private static final ConcurrentMap<Class<?>, ObjectWriter> defaultWriters = new ConcurrentHashMap<Class<?>, ObjectWriter>();
+
     protected final ObjectMapper mapper;
 
+    private final ConcurrentMap<Class<?>, ObjectReader> readers;
+
+    private final ConcurrentMap<Class<?>, ObjectWriter> writers;
+
     /**
      * Create instance of the converter that uses ObjectMapper with
      * {@link Feature#FAIL_ON_UNKNOWN_PROPERTIES} set to <code>false</code> and
      * default typing set to {@link DefaultTyping#NON_FINAL}.
      */
     public JsonDataConverter() {
-        this(new ObjectMapper());
-        // ignoring unknown properties makes us more robust to changes in the schema
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-
-        // This will allow including type information all non-final types.  This allows correct 
-        // serialization/deserialization of generic collections, for example List<MyType>. 
-        mapper.enableDefaultTyping(DefaultTyping.NON_FINAL);
+        if (getClass() == JsonDataConverter.class) {
+            mapper = defaultMapper;
+            readers = defaultReaders;
+            writers = defaultWriters;
+        }
+        else {
+            mapper = createDefaultMapper();
+            readers = new ConcurrentHashMap<Class<?>, ObjectReader>();
+            writers = new ConcurrentHashMap<Class<?>, ObjectWriter>();
+        }
     }
 
     /**
@@ -64,12 +96,26 @@ public class JsonDataConverter extends DataConverter {
      */
     public JsonDataConverter(ObjectMapper mapper) {
         this.mapper = mapper;
+        readers = new ConcurrentHashMap<Class<?>, ObjectReader>();
+        writers = new ConcurrentHashMap<Class<?>, ObjectWriter>();
+    }
+
+    protected static ObjectMapper createDefaultMapper() {
+        ObjectMapper result = new ObjectMapper();
+        // ignoring unknown properties makes us more robust to changes in the schema
+        result.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        result.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+
+        // This will allow including type information all non-final types.  This allows correct 
+        // serialization/deserialization of generic collections, for example List<MyType>. 
+        result.enableDefaultTyping(DefaultTyping.NON_FINAL);
+        return result;
     }
 
     @Override
     public String toData(Object value) throws DataConverterException {
         try {
-            return mapper.writeValueAsString(value);
+            return getWriter(value).writeValueAsString(value);
         }
         catch (JsonGenerationException e) {
             throwDataConverterException(e, value);
@@ -83,6 +129,19 @@ public class JsonDataConverter extends DataConverter {
         throw new IllegalStateException("not reachable");
     }
 
+    /**
+     * Serializes directly to the writer without an intermediate String.
+     */
+    @Override
+    public void toData(Object value, Writer writer) throws DataConverterException {
+        try {
+            getWriter(value).writeValue(writer, value);
+        }
+        catch (IOException e) {
+            throwDataConverterException(e, value);
+        }
+    }
+
     private void throwDataConverterException(Throwable e, Object value) {
         if (value == null) {
             throw new DataConverterException("Failure serializing null value", e);
@@ -93,7 +152,7 @@ public class JsonDataConverter extends DataConverter {
     @Override
     public <T> T fromData(String serialized, Class<T> valueType) throws DataConverterException {
         try {
-            return mapper.readValue(serialized, valueType);
+            return getReader(valueType).readValue(serialized);
         }
         catch (JsonParseException e) {
             throw new DataConverterException(e);
@@ -105,4 +164,48 @@ public class JsonDataConverter extends DataConverter {
             throw new DataConverterException(e);
         }
     }
+
+    /**
+     * Deserializes directly from the reader without an intermediate String.
+     */
+    @Override
+    public <T> T fromData(Reader reader, Class<T> valueType) throws DataConverterException {
+        try {
+            return getReader(valueType).readValue(reader);
+        }
+        catch (IOException e) {
+            throw new DataConverterException(e);
+        }
+    }
+
+    private ObjectReader getReader(Class<?> valueType) {
+        ObjectReader result = readers.get(valueType);
+        if (result == null) {
+            result = mapper.readerFor(valueType);
+            if (readers.size() < MAXIMUM_CACHED_TYPES) {
+                readers.putIfAbsent(valueType, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writer of the runtime type of the value. It produces the same output as
+     * {@link ObjectMapper#writeValueAsString(Object)} as type information is
+     * added according to the runtime type in both cases.
+     */
+    private ObjectWriter getWriter(Object value) {
+        if (value == null) {
+            return mapper.writer();
+        }
+        Class<?> valueType = value.getClass();
+        ObjectWriter result = writers.get(valueType);
+        if (result == null) {
+            result = mapper.writerFor(valueType);
+            if (writers.size() < MAXIMUM_CACHED_TYPES) {
+                writers.putIfAbsent(valueType, result);
+            }
+        }
+        return result;
+    }
 }
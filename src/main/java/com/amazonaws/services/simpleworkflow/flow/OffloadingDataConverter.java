@@ -0,0 +1,181 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Decorates another converter to keep values which serialized form is longer
+ * than a threshold out of the workflow history. Such values are put into a
+ * {@link BlobStore} and only a reference that consists of {@link #PREFIX} and
+ * the SHA-256 of the value is returned. As the key depends only on the
+ * content, converting the same value again during replay produces the same
+ * reference.
+ * <p>
+ * Dereferenced and stored values are kept in a {@link BlobCache}, so replays
+ * of the same execution don't fetch them from the store again. Workflow
+ * clients usually create a converter per client, which is created per workflow
+ * instance, so unless a cache is passed explicitly all converters share a
+ * single cache bounded by {@link #DEFAULT_MAXIMUM_CACHE_SIZE}. Converters that
+ * use equal stores share the cached values.
+ * Values without the prefix are given to the delegate as is, so data written
+ * before switching to this converter is still readable.
+ * <p>
+ * Wrap a {@link CompressingDataConverter} to compress values before deciding
+ * whether to offload them. To use it through the <code>dataConverter</code>
+ * attribute of the <code>@Activities</code> and <code>@Workflow</code>
+ * annotations define a subclass with a no-argument constructor that passes
+ * the application store.
+ */
+public class OffloadingDataConverter extends DataConverter {
+
+    /**
+     * Marks references to the offloaded values. Can't be the beginning of a
+     * JSON document.
+     */
+    public static final String PREFIX = "#blob:";
+
+    /**
+     * SWF limits inputs and results to 32K characters.
+     */
+    public static final int DEFAULT_THRESHOLD = 16 * 1024;
+
+    /**
+     * Maximum size in characters of the cache shared by converters created
+     * without an explicit cache.
+     */
+    public static final long DEFAULT_MAXIMUM_CACHE_SIZE = 64 * 1024 * 1024;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final BlobCache sharedCache = new BlobCache(DEFAULT_MAXIMUM_CACHE_SIZE);
+
+    private final DataConverter delegate;
+
+    private final BlobStore store;
+
+    private final int threshold;
+
+    private final BlobCache cache;
+
+    public OffloadingDataConverter(BlobStore store) {
+        this(new JsonDataConverter(), store, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Create instance of the converter that uses the cache shared by all
+     * converters created without an explicit cache.
+     * 
+     * @param threshold
+     *            minimum length of the delegate output in characters that is
+     *            offloaded to the store
+     */
+    public OffloadingDataConverter(DataConverter delegate, BlobStore store, int threshold) {
+        this(delegate, store, threshold, sharedCache);
+    }
+
+    /**
+     * @param threshold
+     *            minimum length of the delegate output in characters that is
+     *            offloaded to the store
+     * @param cache
+     *            can be shared with converters that use other stores
+     */
+    public OffloadingDataConverter(DataConverter delegate, BlobStore store, int threshold, BlobCache cache) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("null delegate");
+        }
+        if (store == null) {
+            throw new IllegalArgumentException("null store");
+        }
+        if (threshold < 0) {
+            throw new IllegalArgumentException("negative threshold");
+        }
+        if (cache == null) {
+            throw new IllegalArgumentException("null cache");
+        }
+        this.delegate = delegate;
+        this.store = store;
+        this.threshold = threshold;
+        this.cache = cache;
+    }
+
+    public DataConverter getDelegate() {
+        return delegate;
+    }
+
+    public BlobStore getStore() {
+        return store;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    @Override
+    public String toData(Object value) throws DataConverterException {
+        String data = delegate.toData(value);
+        if (data == null || data.length() < threshold) {
+            return data;
+        }
+        String key = getKey(data);
+        if (cache.get(store, key) == null) {
+            store.put(key, data);
+            cache.put(store, key, data);
+        }
+        return PREFIX + key;
+    }
+
+    @Override
+    public <T> T fromData(String content, Class<T> valueType) throws DataConverterException {
+        if (content == null || !content.startsWith(PREFIX)) {
+            return delegate.fromData(content, valueType);
+        }
+        String key = content.substring(PREFIX.length());
+        String data = cache.get(store, key);
+        if (data == null) {
+            data = store.get(key);
+            cache.put(store, key, data);
+        }
+        return delegate.fromData(data, valueType);
+    }
+
+    public BlobCache getCache() {
+        return cache;
+    }
+
+    private static String getKey(String data) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+        byte[] hash = digest.digest(data.getBytes(UTF8));
+        char[] result = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            result[2 * i] = HEX[(hash[i] >> 4) & 0xf];
+            result[2 * i + 1] = HEX[hash[i] & 0xf];
+        }
+        return new String(result);
+    }
+
+}
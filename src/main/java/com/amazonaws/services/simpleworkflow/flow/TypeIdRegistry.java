@@ -0,0 +1,133 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+/**
+ * Maps types to short stable ids used by {@link CompactJsonDataConverter}
+ * instead of fully qualified class names. Ids are part of the serialized
+ * data, so they must never change or be reused for a different type once
+ * written to a workflow history, and all workers that read the data must use
+ * the same registry.
+ * <p>
+ * An id can't contain '.' and can't start with '[', so it is never confused
+ * with a class name that is still used for types that are not registered.
+ */
+public class TypeIdRegistry {
+
+    private final ConcurrentMap<Class<?>, String> ids = new ConcurrentHashMap<Class<?>, String>();
+
+    private final ConcurrentMap<String, Class<?>> types = new ConcurrentHashMap<String, Class<?>>();
+
+    /**
+     * Registers the type under the given id.
+     * 
+     * @return this registry to allow chaining
+     * @throws IllegalArgumentException
+     *             if the id is not valid or type or id is already registered
+     *             with a different counterpart
+     */
+    public synchronized TypeIdRegistry register(Class<?> type, String id) {
+        if (type == null) {
+            throw new IllegalArgumentException("null type");
+        }
+        if (id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("null or empty id for " + type);
+        }
+        if (id.indexOf('.') >= 0 || id.charAt(0) == '[') {
+            throw new IllegalArgumentException("id can't contain '.' or start with '[': " + id);
+        }
+        String existingId = ids.get(type);
+        if (existingId != null && !existingId.equals(id)) {
+            throw new IllegalArgumentException(type + " is already registered with id \"" + existingId + "\"");
+        }
+        Class<?> existingType = types.get(id);
+        if (existingType != null && !existingType.equals(type)) {
+            throw new IllegalArgumentException("id \"" + id + "\" is already registered for " + existingType);
+        }
+        ids.put(type, id);
+        types.put(id, type);
+        return this;
+    }
+
+    /**
+     * Registers the type under the id specified by its {@link JsonTypeName}
+     * annotation.
+     * 
+     * @return this registry to allow chaining
+     */
+    public TypeIdRegistry register(Class<?> type) {
+        JsonTypeName typeName = type.getAnnotation(JsonTypeName.class);
+        if (typeName == null) {
+            throw new IllegalArgumentException(type + " is not annotated with @JsonTypeName");
+        }
+        return register(type, typeName.value());
+    }
+
+    /**
+     * Registers ids of the JDK collections, arrays and dates that are most
+     * often found in workflow and activity arguments. Data written with them
+     * can't be read by workers of the library versions that don't have this
+     * class.
+     * 
+     * @return this registry to allow chaining
+     */
+    public TypeIdRegistry registerCommonJavaTypes() {
+        register(Object[].class, "Object[]");
+        register(ArrayList.class, "ArrayList");
+        register(LinkedList.class, "LinkedList");
+        register(HashMap.class, "HashMap");
+        register(LinkedHashMap.class, "LinkedHashMap");
+        register(TreeMap.class, "TreeMap");
+        register(HashSet.class, "HashSet");
+        register(LinkedHashSet.class, "LinkedHashSet");
+        register(TreeSet.class, "TreeSet");
+        register(Long.class, "Long");
+        register(Date.class, "Date");
+        return this;
+    }
+
+    /**
+     * @return <code>null</code> if the type is not registered
+     */
+    public String getId(Class<?> type) {
+        return ids.get(type);
+    }
+
+    /**
+     * @return <code>null</code> if the id is not registered
+     */
+    public Class<?> getType(String id) {
+        return types.get(id);
+    }
+
+    @Override
+    public String toString() {
+        return "TypeIdRegistry" + types;
+    }
+}
@@ -15,7 +15,9 @@
 package com.amazonaws.services.simpleworkflow.flow;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Contains value that is bound to a currently executing workflow. Has the same
@@ -68,6 +70,47 @@ public class WorkflowExecutionLocal<T> {
         }
     }
 
+    /**
+     * Detaches values of all workflow execution locals from the current thread
+     * so they can be reattached to the same or another thread through
+     * {@link #attach(Object)}. Used to keep a workflow execution in memory
+     * between decisions. It is not a good idea to call this method from non
+     * framework code.
+     * 
+     * @return opaque state to pass to {@link #attach(Object)}
+     */
+    public static Object detach() {
+        List<WorkflowExecutionLocal<?>> currentLocals;
+        synchronized (locals) {
+            currentLocals = new ArrayList<WorkflowExecutionLocal<?>>(locals);
+        }
+        Map<WorkflowExecutionLocal<?>, Wrapper<?>> result = new IdentityHashMap<WorkflowExecutionLocal<?>, Wrapper<?>>();
+        for (WorkflowExecutionLocal<?> local : currentLocals) {
+            Wrapper<?> w = local.value.get();
+            if (w != null) {
+                result.put(local, w);
+            }
+            local.removeAfter();
+        }
+        return result;
+    }
+
+    /**
+     * Attaches values previously detached through {@link #detach()} to the
+     * current thread. Locals created after the detachment get their initial
+     * values. It is not a good idea to call this method from non framework
+     * code.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static void attach(Object detached) {
+        before();
+        Map<WorkflowExecutionLocal<?>, Wrapper<?>> values = (Map<WorkflowExecutionLocal<?>, Wrapper<?>>) detached;
+        for (Map.Entry<WorkflowExecutionLocal<?>, Wrapper<?>> entry : values.entrySet()) {
+            WorkflowExecutionLocal local = entry.getKey();
+            local.set((Wrapper) entry.getValue());
+        }
+    }
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public WorkflowExecutionLocal() {
         Wrapper w = new Wrapper();
@@ -20,8 +20,12 @@ import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 
 import com.amazonaws.services.simpleworkflow.AmazonSimpleWorkflow;
+import com.amazonaws.services.simpleworkflow.flow.core.AsyncStackTraceCapture;
 import com.amazonaws.services.simpleworkflow.flow.pojo.POJOWorkflowDefinitionFactoryFactory;
+import com.amazonaws.services.simpleworkflow.flow.worker.BackoffJitter;
+import com.amazonaws.services.simpleworkflow.flow.worker.GenericWorker;
 import com.amazonaws.services.simpleworkflow.flow.worker.GenericWorkflowWorker;
+import com.amazonaws.services.simpleworkflow.flow.worker.WorkerMetrics;
 
 public class WorkflowWorker implements WorkerBase {
 
@@ -151,6 +155,17 @@ public class WorkflowWorker implements WorkerBase {
         genericWorker.setPollBackoffCoefficient(backoffCoefficient);
     }
 
+    public BackoffJitter getPollBackoffJitter() {
+        return genericWorker.getPollBackoffJitter();
+    }
+
+    /**
+     * @see GenericWorker#setPollBackoffJitter(BackoffJitter)
+     */
+    public void setPollBackoffJitter(BackoffJitter pollBackoffJitter) {
+        genericWorker.setPollBackoffJitter(pollBackoffJitter);
+    }
+
     @Override
     public int getPollThreadCount() {
         return genericWorker.getPollThreadCount();
@@ -161,6 +176,135 @@ public class WorkflowWorker implements WorkerBase {
         genericWorker.setPollThreadCount(threadCount);
     }
 
+    public int getMinimumPollThreadCount() {
+        return genericWorker.getMinimumPollThreadCount();
+    }
+
+    public void setMinimumPollThreadCount(int minimumPollThreadCount) {
+        genericWorker.setMinimumPollThreadCount(minimumPollThreadCount);
+    }
+
+    public int getMaximumPollThreadCount() {
+        return genericWorker.getMaximumPollThreadCount();
+    }
+
+    /**
+     * @see GenericWorker#setMaximumPollThreadCount(int)
+     */
+    public void setMaximumPollThreadCount(int maximumPollThreadCount) {
+        genericWorker.setMaximumPollThreadCount(maximumPollThreadCount);
+    }
+
+    public int getActivePollThreadCount() {
+        return genericWorker.getActivePollThreadCount();
+    }
+
+    public String getPollThreadScalingDecision() {
+        return genericWorker.getPollThreadScalingDecision();
+    }
+
+    public int getDeciderCacheSize() {
+        return genericWorker.getDeciderCacheSize();
+    }
+
+    /**
+     * @see GenericWorkflowWorker#setDeciderCacheSize(int)
+     */
+    public void setDeciderCacheSize(int deciderCacheSize) {
+        genericWorker.setDeciderCacheSize(deciderCacheSize);
+    }
+
+    public long getDecisionTaskMemoryBudget() {
+        return genericWorker.getDecisionTaskMemoryBudget();
+    }
+
+    /**
+     * @see GenericWorkflowWorker#setDecisionTaskMemoryBudget(long)
+     */
+    public void setDecisionTaskMemoryBudget(long decisionTaskMemoryBudget) {
+        genericWorker.setDecisionTaskMemoryBudget(decisionTaskMemoryBudget);
+    }
+
+    /**
+     * @see GenericWorkflowWorker#getDecisionTaskMemoryInUse()
+     */
+    public long getDecisionTaskMemoryInUse() {
+        return genericWorker.getDecisionTaskMemoryInUse();
+    }
+
+    /**
+     * @see GenericWorkflowWorker#getDecisionTaskMemoryPeak()
+     */
+    public long getDecisionTaskMemoryPeak() {
+        return genericWorker.getDecisionTaskMemoryPeak();
+    }
+
+    public int getHistoryPagePrefetchDepth() {
+        return genericWorker.getHistoryPagePrefetchDepth();
+    }
+
+    /**
+     * @see GenericWorkflowWorker#setHistoryPagePrefetchDepth(int)
+     */
+    public void setHistoryPagePrefetchDepth(int historyPagePrefetchDepth) {
+        genericWorker.setHistoryPagePrefetchDepth(historyPagePrefetchDepth);
+    }
+
+    public int getTaskExecutorThreadPoolSize() {
+        return genericWorker.getTaskExecutorThreadPoolSize();
+    }
+
+    /**
+     * @see GenericWorkflowWorker#setTaskExecutorThreadPoolSize(int)
+     */
+    public void setTaskExecutorThreadPoolSize(int taskExecutorThreadPoolSize) {
+        genericWorker.setTaskExecutorThreadPoolSize(taskExecutorThreadPoolSize);
+    }
+
+    public AsyncStackTraceCapture getAsyncStackTraceCapture() {
+        return genericWorker.getAsyncStackTraceCapture();
+    }
+
+    /**
+     * @see GenericWorkflowWorker#setAsyncStackTraceCapture(AsyncStackTraceCapture)
+     */
+    public void setAsyncStackTraceCapture(AsyncStackTraceCapture asyncStackTraceCapture) {
+        genericWorker.setAsyncStackTraceCapture(asyncStackTraceCapture);
+    }
+
+    public boolean isSkipAsyncStackTraceDuringReplay() {
+        return genericWorker.isSkipAsyncStackTraceDuringReplay();
+    }
+
+    /**
+     * @see GenericWorkflowWorker#setSkipAsyncStackTraceDuringReplay(boolean)
+     */
+    public void setSkipAsyncStackTraceDuringReplay(boolean skipAsyncStackTraceDuringReplay) {
+        genericWorker.setSkipAsyncStackTraceDuringReplay(skipAsyncStackTraceDuringReplay);
+    }
+
+    public WorkerMetrics getMetrics() {
+        return genericWorker.getMetrics();
+    }
+
+    /**
+     * @see GenericWorkflowWorker#setMetrics(WorkerMetrics)
+     */
+    public void setMetrics(WorkerMetrics metrics) {
+        genericWorker.setMetrics(metrics);
+    }
+
+    public boolean isUseVirtualThreads() {
+        return genericWorker.isUseVirtualThreads();
+    }
+
+    /**
+     * @see GenericWorker#setUseVirtualThreads(boolean)
+     */
+    public void setUseVirtualThreads(boolean useVirtualThreads) {
+        genericWorker.setUseVirtualThreads(useVirtualThreads);
+    }
+
     @Override
     public void registerTypesToPoll() {
         genericWorker.registerTypesToPoll();
@@ -24,33 +24,39 @@ public class AndPromise extends Promise<Void> {
 
     private final class AndPromiseCallback implements Runnable {
 
-        private int count;
-
-        AndPromiseCallback(int count) {
-            this.count = count;
-        }
-
         @Override
         public void run() {
             if (--count == 0) {
-                impl.set(null);
+                setReady();
             }
         }
     }
 
     private static final Promise<?>[] EMPTY_VALUE_ARRAY = new Promise[0];
 
-    private final Settable<Void> impl = new Settable<Void>();
+    /**
+     * Number of values that are not ready yet
+     */
+    private int count;
+
+    private boolean ready;
+
+    /**
+     * @see PromiseCallbacks
+     */
+    private Object callbacks;
 
     @SuppressWarnings("rawtypes")
     private final Promise[] values;
 
     public AndPromise(Promise<?>... values) {
         this.values = values;
+        this.count = values.length;
         if (values.length == 0) {
-            impl.set(null);
+            setReady();
+            return;
         }
-        Runnable callback = new AndPromiseCallback(values.length);
+        Runnable callback = new AndPromiseCallback();
         for (Promise<?> value : values) {
             if (value != null) {
                 value.addCallback(callback);
@@ -71,24 +77,39 @@ public class AndPromise extends Promise<Void> {
         return values;
     }
 
+    private void setReady() {
+        ready = true;
+        Object toNotify = callbacks;
+        callbacks = null;
+        PromiseCallbacks.run(toNotify);
+    }
+
     @Override
     protected void addCallback(Runnable callback) {
-        impl.addCallback(callback);
+        if (ready) {
+            callback.run();
+        }
+        else {
+            callbacks = PromiseCallbacks.add(callbacks, callback);
+        }
     }
 
     @Override
     public Void get() {
-        return impl.get();
+        if (!ready) {
+            throw new IllegalStateException("not ready");
+        }
+        return null;
     }
 
     @Override
     public boolean isReady() {
-        return impl.isReady();
+        return ready;
     }
 
     @Override
     protected void removeCallback(Runnable callback) {
-        impl.removeCallback(callback);
+        callbacks = PromiseCallbacks.remove(callbacks, callback);
     }
 
 }
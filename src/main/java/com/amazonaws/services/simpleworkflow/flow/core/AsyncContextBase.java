@@ -54,9 +54,22 @@ abstract class AsyncContextBase implements Runnable, AsyncParentContext {
         this.name = parent == null ? null : parent.getName();
         AsyncStackTrace parentStack = parent.getStackTrace();
         if (parentStack != null) {
-            stackTrace = new AsyncStackTrace(parentStack, Thread.currentThread().getStackTrace(), skipStackLines);
-            stackTrace.setStartFrom(parent.getParentTaskMethodName());
-            stackTrace.setHideStartFromMethod(parent.getHideStartFromMethod());
+            AsyncStackTraceCapture stackTraceCapture = parent.getStackTraceCapture();
+            if (stackTraceCapture == null || stackTraceCapture.isCaptured()) {
+                if (stackTraceCapture != null && stackTraceCapture.isLazy()) {
+                    // Unlike Thread.getStackTrace() the exception doesn't include getStackTrace frame
+                    int skip = skipStackLines > 0 ? skipStackLines - 1 : 0;
+                    stackTrace = new AsyncStackTrace(parentStack, new Throwable(), skip);
+                }
+                else {
+                    stackTrace = new AsyncStackTrace(parentStack, Thread.currentThread().getStackTrace(), skipStackLines);
+                }
+                stackTrace.setStartFrom(parent.getParentTaskMethodName());
+                stackTrace.setHideStartFromMethod(parent.getHideStartFromMethod());
+            }
+            else {
+                stackTrace = parentStack;
+            }
         }
         this.parent.add(this, waitFor == null || waitFor.length == 0 ? null : new AndPromise(waitFor));
     }
@@ -69,6 +82,15 @@ abstract class AsyncContextBase implements Runnable, AsyncParentContext {
         return stackTrace;
     }
 
+    /**
+     * Not cached as the capture mode of the scope can be changed after the
+     * root context creation.
+     */
+    @Override
+    public AsyncStackTraceCapture getStackTraceCapture() {
+        return parent.getStackTraceCapture();
+    }
+
     public AsyncTaskInfo getTaskInfo() {
         return new AsyncTaskInfo(name, stackTrace == null ? null : stackTrace.getStackTrace(), daemon, waitFor);
     }
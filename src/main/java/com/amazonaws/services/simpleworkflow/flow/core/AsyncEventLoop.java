@@ -18,6 +18,11 @@ import java.util.LinkedList;
 import java.util.Queue;
 import java.util.concurrent.Executor;
 
+/**
+ * Event loop that allows queuing tasks from any thread.
+ * 
+ * @see SingleThreadedAsyncEventLoop
+ */
 class AsyncEventLoop implements Executor {
 
     private final Queue<Runnable> tasks = new LinkedList<Runnable>();
@@ -34,6 +34,11 @@ interface AsyncParentContext {
     Executor getExecutor();
 
     AsyncStackTrace getStackTrace();
+
+    /**
+     * @return null means {@link AsyncStackTraceCapture#FULL}
+     */
+    AsyncStackTraceCapture getStackTraceCapture();
     
     String getParentTaskMethodName();
 
@@ -37,6 +37,17 @@ public abstract class AsyncScope extends AsyncContextAware implements Cancelable
         this.context = new AsyncScopeContext(this, disableAsyncStackTrace, excludeAsyncScopeStack);
     }
 
+    /**
+     * @param singleThreaded
+     *            <code>true</code> if the scope is accessed by a single
+     *            thread only. Tasks are queued without synchronization then.
+     *            Promises created in the scope must not be set from other
+     *            threads.
+     */
+    public AsyncScope(boolean disableAsyncStackTrace, boolean excludeAsyncScopeStack, boolean singleThreaded) {
+        this.context = new AsyncScopeContext(this, disableAsyncStackTrace, excludeAsyncScopeStack, singleThreaded);
+    }
+
     public void cancel(Throwable cause) {
         context.cancel(cause);
     }
@@ -78,6 +89,20 @@ public abstract class AsyncScope extends AsyncContextAware implements Cancelable
         return context.isComplete();
     }
 
+    public AsyncStackTraceCapture getAsyncStackTraceCapture() {
+        return context.getStackTraceCapture();
+    }
+
+    /**
+     * Defines how call sites of tasks created in this scope are recorded for
+     * asynchronous stack traces. Has no effect if asynchronous stack traces
+     * are disabled. Should be called before {@link #eventLoop()}. Default is
+     * {@link AsyncStackTraceCapture#FULL}.
+     */
+    public void setAsyncStackTraceCapture(AsyncStackTraceCapture capture) {
+        context.setStackTraceCapture(capture);
+    }
+
     public Throwable getFailure() {
         return context.getFailure();
     }
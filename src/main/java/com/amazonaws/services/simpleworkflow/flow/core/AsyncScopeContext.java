@@ -82,6 +82,11 @@ class AsyncScopeContext {
             return stackTrace;
         }
 
+        @Override
+        public AsyncStackTraceCapture getStackTraceCapture() {
+            return stackTraceCapture;
+        }
+
         @Override
         public boolean isRethrown(Throwable e) {
             throw new IllegalStateException("should not be called");
@@ -124,6 +129,8 @@ class AsyncScopeContext {
     private TryCatchFinally root;
 
     private AsyncStackTrace stackTrace;
+
+    private AsyncStackTraceCapture stackTraceCapture;
     
     private String name;
 
@@ -144,6 +151,31 @@ class AsyncScopeContext {
         }
     }
 
+    /**
+     * @param singleThreaded
+     *            use event loop without synchronization. Allowed only if all
+     *            tasks of the scope are created and completed by the thread
+     *            that calls {@link #eventLoop()}.
+     */
+    public AsyncScopeContext(AsyncScope asyncScope, boolean disableAsyncStackTrace, boolean excludeAsyncScopeStack,
+            boolean singleThreaded) {
+        // The reason this(...) is not called is to keep the same stack depth for both constructors.
+        this.asyncScope = asyncScope;
+        if (!disableAsyncStackTrace) {
+            stackTrace = new AsyncStackTrace(null, new StackTraceElement[0], 0);
+        }
+        executor = singleThreaded ? new SingleThreadedAsyncEventLoop() : new AsyncEventLoop();
+        AsyncParentContext rootContext = new RootAsyncContext();
+        AsyncContextBase.setCurrent(rootContext);
+        try {
+            int skipStackLines = excludeAsyncScopeStack ? Integer.MAX_VALUE : 10;
+            root = new RootTryCatchFinally(false, skipStackLines);
+        }
+        finally {
+            AsyncContextBase.setCurrent(null);
+        }
+    }
+
     public boolean eventLoop() throws Throwable {
         if (complete) {
             throw new IllegalStateException("already complete");
@@ -187,6 +219,14 @@ class AsyncScopeContext {
     public String getName() {
         return name;
     }
+
+    public AsyncStackTraceCapture getStackTraceCapture() {
+        return stackTraceCapture;
+    }
+
+    public void setStackTraceCapture(AsyncStackTraceCapture stackTraceCapture) {
+        this.stackTraceCapture = stackTraceCapture;
+    }
     
     public void setName(String name) {
         this.name = name;
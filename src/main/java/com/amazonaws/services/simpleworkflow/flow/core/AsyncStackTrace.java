@@ -46,7 +46,12 @@ import java.util.List;
  */
 class AsyncStackTrace {
 
-    private final StackTraceElement[] stackTrace;
+    private StackTraceElement[] stackTrace;
+
+    /**
+     * Not resolved call site when the stack is captured lazily
+     */
+    private Throwable callSite;
 
     private final AsyncStackTrace parentTrace;
 
@@ -69,6 +74,26 @@ class AsyncStackTrace {
         this.skip = skip;
     }
 
+    /**
+     * @param callSite
+     *            exception created at the call site which stack is resolved
+     *            only when this trace is requested.
+     */
+    public AsyncStackTrace(AsyncStackTrace parentTrace, Throwable callSite, int skip) {
+        super();
+        this.parentTrace = parentTrace;
+        this.callSite = callSite;
+        this.skip = skip;
+    }
+
+    private StackTraceElement[] getFrames() {
+        if (stackTrace == null) {
+            stackTrace = callSite.getStackTrace();
+            callSite = null;
+        }
+        return stackTrace;
+    }
+
     public StackTraceElement[] getStackTrace() {
         if (printRawTrace) {
             return printRawTrace();
@@ -79,6 +104,7 @@ class AsyncStackTrace {
     }
 
     private void getStackTrace(List<StackTraceElement> result) {
+        StackTraceElement[] stackTrace = getFrames();
         for (int i = skip; i < stackTrace.length; i++) {
             StackTraceElement element = stackTrace[i];
             if (i == skip && result.size() > 0) {
@@ -99,6 +125,7 @@ class AsyncStackTrace {
     }
 
     private StackTraceElement[] printRawTrace() {
+        StackTraceElement[] stackTrace = getFrames();
         if (parentTrace != null) {
             StackTraceElement[] parentStack = parentTrace.getStackTrace();
             int parentLength = parentStack.length;
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.core;
+
+/**
+ * Controls how call sites of asynchronous tasks are recorded to build
+ * asynchronous stack traces. Capturing a stack on every task creation is
+ * expensive, so it can be deferred or skipped for some tasks. A task which
+ * call site is not captured reports the asynchronous stack trace of its parent.
+ * 
+ * @see AsyncScope#setAsyncStackTraceCapture(AsyncStackTraceCapture)
+ */
+public abstract class AsyncStackTraceCapture {
+
+    /**
+     * Captures and resolves the stack of every task. The default.
+     */
+    public static final AsyncStackTraceCapture FULL = new AsyncStackTraceCapture() {
+
+        @Override
+        public boolean isCaptured() {
+            return true;
+        }
+    };
+
+    /**
+     * Captures the stack of every task, but resolves it into stack trace
+     * elements only when a stack trace is requested, usually on failure.
+     */
+    public static final AsyncStackTraceCapture LAZY = new AsyncStackTraceCapture() {
+
+        @Override
+        public boolean isCaptured() {
+            return true;
+        }
+
+        @Override
+        public boolean isLazy() {
+            return true;
+        }
+    };
+
+    /**
+     * Captures the stack of every Nth created task.
+     */
+    public static AsyncStackTraceCapture sampled(final int everyNth, final boolean lazy) {
+        if (everyNth < 1) {
+            throw new IllegalArgumentException("0 or negative everyNth");
+        }
+        return new AsyncStackTraceCapture() {
+
+            // Races between threads only affect the sampling accuracy
+            private int count;
+
+            @Override
+            public boolean isCaptured() {
+                return count++ % everyNth == 0;
+            }
+
+            @Override
+            public boolean isLazy() {
+                return lazy;
+            }
+        };
+    }
+
+    /**
+     * Called on each task creation.
+     * 
+     * @return true to record the call site of the task being created
+     */
+    public abstract boolean isCaptured();
+
+    /**
+     * @return true to defer resolution of the captured stack
+     */
+    public boolean isLazy() {
+        return false;
+    }
+}
@@ -24,13 +24,21 @@ public class OrPromise extends Promise<Void> {
 
         @Override
         public void run() {
-            if (!impl.isReady()) {
-                impl.set(null);
+            if (!ready) {
+                ready = true;
+                Object toNotify = callbacks;
+                callbacks = null;
+                PromiseCallbacks.run(toNotify);
             }
         }
     }
 
-    private final Settable<Void> impl = new Settable<Void>();
+    private boolean ready;
+
+    /**
+     * @see PromiseCallbacks
+     */
+    private Object callbacks;
 
     private final Promise<?>[] values;
 
@@ -53,22 +61,30 @@ public class OrPromise extends Promise<Void> {
 
     @Override
     protected void addCallback(Runnable callback) {
-        impl.addCallback(callback);
+        if (ready) {
+            callback.run();
+        }
+        else {
+            callbacks = PromiseCallbacks.add(callbacks, callback);
+        }
     }
 
     @Override
     public Void get() {
-        return impl.get();
+        if (!ready) {
+            throw new IllegalStateException("not ready");
+        }
+        return null;
     }
 
     @Override
     public boolean isReady() {
-        return impl.isReady();
+        return ready;
     }
 
     @Override
     protected void removeCallback(Runnable callback) {
-        impl.removeCallback(callback);
+        callbacks = PromiseCallbacks.remove(callbacks, callback);
     }
 
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.core;
+
+/**
+ * Callback storage of promise implementations. Most promises have at most one
+ * callback, so a promise keeps a single Object field that is
+ * <code>null</code>, a callback itself or an instance of this class when there
+ * are more of them. Usage:
+ * 
+ * <pre>
+ * callbacks = PromiseCallbacks.add(callbacks, callback);
+ * </pre>
+ */
+final class PromiseCallbacks {
+
+    private Runnable[] items = new Runnable[4];
+
+    private int size;
+
+    private PromiseCallbacks() {
+    }
+
+    /**
+     * @return new value of the callbacks field
+     */
+    static Object add(Object callbacks, Runnable callback) {
+        if (callbacks == null) {
+            return callback;
+        }
+        PromiseCallbacks list;
+        if (callbacks instanceof PromiseCallbacks) {
+            list = (PromiseCallbacks) callbacks;
+        }
+        else {
+            list = new PromiseCallbacks();
+            list.append((Runnable) callbacks);
+        }
+        list.append(callback);
+        return list;
+    }
+
+    /**
+     * Removes the first callback equal to the given one.
+     * 
+     * @return new value of the callbacks field
+     */
+    static Object remove(Object callbacks, Runnable callback) {
+        if (callbacks instanceof PromiseCallbacks) {
+            ((PromiseCallbacks) callbacks).removeFirst(callback);
+            return callbacks;
+        }
+        if (callbacks != null && callbacks.equals(callback)) {
+            return null;
+        }
+        return callbacks;
+    }
+
+    /**
+     * Runs callbacks in the order they were added.
+     */
+    static void run(Object callbacks) {
+        if (callbacks == null) {
+            return;
+        }
+        if (callbacks instanceof PromiseCallbacks) {
+            PromiseCallbacks list = (PromiseCallbacks) callbacks;
+            for (int i = 0; i < list.size; i++) {
+                list.items[i].run();
+            }
+        }
+        else {
+            ((Runnable) callbacks).run();
+        }
+    }
+
+    private void append(Runnable callback) {
+        if (size == items.length) {
+            Runnable[] grown = new Runnable[size << 1];
+            System.arraycopy(items, 0, grown, 0, size);
+            items = grown;
+        }
+        items[size++] = callback;
+    }
+
+    private void removeFirst(Runnable callback) {
+        for (int i = 0; i < size; i++) {
+            if (callback == null ? items[i] == null : callback.equals(items[i])) {
+                System.arraycopy(items, i + 1, items, i, size - i - 1);
+                items[--size] = null;
+                return;
+            }
+        }
+    }
+}
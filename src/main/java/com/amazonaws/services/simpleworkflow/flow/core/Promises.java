@@ -15,6 +15,7 @@
 package com.amazonaws.services.simpleworkflow.flow.core;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -26,7 +27,234 @@ import java.util.Set;
 
 public class Promises {
 
+    /**
+     * Collects values of {@link Promises#allOf(Collection)}. Values are
+     * stored by index, so completion of each input costs O(1).
+     */
+    private static final class AllOf<T> {
+
+        private final Object[] values;
+
+        private final Settable<List<T>> result = new Settable<List<T>>();
+
+        private int remaining;
+
+        AllOf(int size) {
+            values = new Object[size];
+            remaining = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        void set(int index, Object value) {
+            values[index] = value;
+            if (--remaining == 0) {
+                result.set((List<T>) Arrays.asList(values));
+            }
+        }
+    }
+
+    private static final class AllOfCallback<T> implements Runnable {
+
+        private final AllOf<T> allOf;
+
+        private final int index;
+
+        private Promise<? extends T> promise;
+
+        AllOfCallback(AllOf<T> allOf, int index, Promise<? extends T> promise) {
+            this.allOf = allOf;
+            this.index = index;
+            this.promise = promise;
+        }
+
+        @Override
+        public void run() {
+            T value = promise.get();
+            // Do not keep completed input referenced
+            promise = null;
+            allOf.set(index, value);
+        }
+    }
+
+    private static final class AnyOf<T> {
+
+        private final Settable<T> result = new Settable<T>();
+
+        private List<AnyOfCallback<T>> callbacks;
+
+        void set(AnyOfCallback<T> winner, T value) {
+            List<AnyOfCallback<T>> toDetach = callbacks;
+            callbacks = null;
+            if (toDetach != null) {
+                for (AnyOfCallback<T> callback : toDetach) {
+                    if (callback != winner) {
+                        callback.detach();
+                    }
+                }
+            }
+            result.set(value);
+        }
+    }
+
+    private static final class AnyOfCallback<T> implements Runnable {
+
+        private final AnyOf<T> anyOf;
+
+        private Promise<? extends T> promise;
+
+        AnyOfCallback(AnyOf<T> anyOf, Promise<? extends T> promise) {
+            this.anyOf = anyOf;
+            this.promise = promise;
+        }
+
+        @Override
+        public void run() {
+            if (promise == null || anyOf.result.isReady()) {
+                return;
+            }
+            T value = promise.get();
+            promise = null;
+            anyOf.set(this, value);
+        }
+
+        void detach() {
+            if (promise != null) {
+                promise.removeCallback(this);
+                promise = null;
+            }
+        }
+    }
+
+    private static final class CompletionOrder<T> {
+
+        private final List<Settable<T>> outputs;
+
+        private int next;
+
+        CompletionOrder(int size) {
+            outputs = new ArrayList<Settable<T>>(size);
+            for (int i = 0; i < size; i++) {
+                outputs.add(new Settable<T>());
+            }
+        }
+
+        void completed(T value) {
+            Settable<T> output = outputs.get(next);
+            // Output is not needed anymore after it is set
+            outputs.set(next++, null);
+            output.set(value);
+        }
+    }
+
+    private static final class CompletionOrderCallback<T> implements Runnable {
+
+        private final CompletionOrder<T> completionOrder;
+
+        private Promise<? extends T> promise;
+
+        CompletionOrderCallback(CompletionOrder<T> completionOrder, Promise<? extends T> promise) {
+            this.completionOrder = completionOrder;
+            this.promise = promise;
+        }
+
+        @Override
+        public void run() {
+            T value = promise.get();
+            promise = null;
+            completionOrder.completed(value);
+        }
+    }
+
     private Promises() {}
+
+    /**
+     * Promise that becomes ready when all the passed promises are ready. Its
+     * value is the list of their values in the iteration order of the passed
+     * collection. Unlike {@link #listOfPromisesToPromise(List)} it doesn't
+     * require an asynchronous context, doesn't keep references to the input
+     * promises after they are ready and costs O(1) per completed input.
+     * <code>null</code> element is considered ready with <code>null</code>
+     * value.
+     */
+    public static <T> Promise<List<T>> allOf(Collection<? extends Promise<? extends T>> promises) {
+        AllOf<T> allOf = new AllOf<T>(promises.size());
+        if (promises.isEmpty()) {
+            allOf.result.set(new ArrayList<T>());
+            return allOf.result;
+        }
+        int index = 0;
+        for (Promise<? extends T> promise : promises) {
+            if (promise == null) {
+                allOf.set(index++, null);
+            }
+            else {
+                promise.addCallback(new AllOfCallback<T>(allOf, index++, promise));
+            }
+        }
+        return allOf.result;
+    }
+
+    /**
+     * Promise that becomes ready with the value of the first of the passed
+     * promises that becomes ready. When it becomes ready it detaches from all
+     * other inputs, so they don't keep it (and it doesn't keep them) in
+     * memory. <code>null</code> element is considered ready with
+     * <code>null</code> value.
+     * 
+     * @throws IllegalArgumentException
+     *             if the collection is empty
+     */
+    public static <T> Promise<T> anyOf(Collection<? extends Promise<? extends T>> promises) {
+        if (promises.isEmpty()) {
+            throw new IllegalArgumentException("empty promises");
+        }
+        AnyOf<T> anyOf = new AnyOf<T>();
+        List<AnyOfCallback<T>> callbacks = new ArrayList<AnyOfCallback<T>>(promises.size());
+        anyOf.callbacks = callbacks;
+        for (Promise<? extends T> promise : promises) {
+            if (promise == null) {
+                anyOf.set(null, null);
+                break;
+            }
+            AnyOfCallback<T> callback = new AnyOfCallback<T>(anyOf, promise);
+            callbacks.add(callback);
+            promise.addCallback(callback);
+            if (anyOf.result.isReady()) {
+                break;
+            }
+        }
+        return anyOf.result;
+    }
+
+    /**
+     * Returns promises that become ready in order with values of the passed
+     * promises in order of their completion. The first returned promise gets
+     * the value of whichever input is ready first, the second one of the
+     * second and so on. Used to process results as soon as they arrive without
+     * scanning the whole collection for ready ones:
+     * 
+     * <pre>
+     * for (Promise&lt;String&gt; result : Promises.inCompletionOrder(results)) {
+     *     process(result);
+     * }
+     * </pre>
+     * 
+     * Each completion costs O(1). <code>null</code> element is considered
+     * ready with <code>null</code> value.
+     */
+    public static <T> List<Promise<T>> inCompletionOrder(Collection<? extends Promise<? extends T>> promises) {
+        CompletionOrder<T> completionOrder = new CompletionOrder<T>(promises.size());
+        List<Promise<T>> result = new ArrayList<Promise<T>>(completionOrder.outputs);
+        for (Promise<? extends T> promise : promises) {
+            if (promise == null) {
+                completionOrder.completed(null);
+            }
+            else {
+                promise.addCallback(new CompletionOrderCallback<T>(completionOrder, promise));
+            }
+        }
+        return result;
+    }
     
     public static <T> Promise<List<T>> listOfPromisesToPromise(final List<Promise<T>> list) {
         final Settable<List<T>> result = new Settable<List<T>>();
@@ -14,9 +14,6 @@
  */
 package com.amazonaws.services.simpleworkflow.flow.core;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * It is an implementation of Promise, which exposes an additional
  * {@link #set(Object)} and {@link #chain(Promise)} methods. Calling
@@ -61,7 +58,10 @@ import java.util.List;
  */
 public class Settable<V> extends Promise<V> {
 
-    private final List<Runnable> callbacks = new ArrayList<Runnable>();
+    /**
+     * @see PromiseCallbacks
+     */
+    private Object callbacks;
 
     private Runnable chainCallback;
 
@@ -116,9 +116,10 @@ public class Settable<V> extends Promise<V> {
         }
         this.value = value;
         this.ready = true;
-        for (Runnable callback : callbacks) {
-            callback.run();
-        }
+        Object toNotify = callbacks;
+        // Callbacks added after this point are run immediately
+        callbacks = null;
+        PromiseCallbacks.run(toNotify);
     }
 
     /**
@@ -189,13 +190,13 @@ public class Settable<V> extends Promise<V> {
             callback.run();
         }
         else {
-            callbacks.add(callback);
+            callbacks = PromiseCallbacks.add(callbacks, callback);
         }
     }
 
     @Override
     protected void removeCallback(Runnable callback) {
-        callbacks.remove(callback);
+        callbacks = PromiseCallbacks.remove(callbacks, callback);
     }
 
     @Override
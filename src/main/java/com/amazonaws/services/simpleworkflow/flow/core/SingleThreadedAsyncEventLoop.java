@@ -0,0 +1,68 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.core;
+
+/**
+ * Event loop for a scope that is only accessed by a single thread, like a
+ * decider replaying a workflow execution. Tasks are kept in a growable array
+ * used as a ring buffer without any synchronization, so queuing a task doesn't
+ * allocate.
+ */
+class SingleThreadedAsyncEventLoop extends AsyncEventLoop {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Length is always a power of two
+     */
+    private Runnable[] tasks = new Runnable[INITIAL_CAPACITY];
+
+    private int head;
+
+    private int tail;
+
+    @Override
+    public void execute(Runnable task) {
+        tasks[tail] = task;
+        tail = (tail + 1) & (tasks.length - 1);
+        if (tail == head) {
+            grow();
+        }
+    }
+
+    @Override
+    public boolean executeQueuedTask() {
+        Runnable task = tasks[head];
+        if (task == null) {
+            return false;
+        }
+        // Task is removed after run as it is done by the synchronized loop
+        task.run();
+        tasks[head] = null;
+        head = (head + 1) & (tasks.length - 1);
+        return true;
+    }
+
+    private void grow() {
+        int length = tasks.length;
+        Runnable[] grown = new Runnable[length << 1];
+        int fromHead = length - head;
+        System.arraycopy(tasks, head, grown, 0, fromHead);
+        System.arraycopy(tasks, 0, grown, fromHead, head);
+        tasks = grown;
+        head = 0;
+        tail = length;
+    }
+}
@@ -15,6 +15,7 @@
 package com.amazonaws.services.simpleworkflow.flow.generic;
 
 import com.amazonaws.services.simpleworkflow.flow.ActivitySchedulingOptions;
+import com.amazonaws.services.simpleworkflow.flow.DataConverter;
 import com.amazonaws.services.simpleworkflow.flow.common.FlowConstants;
 import com.amazonaws.services.simpleworkflow.model.ActivityType;
 
@@ -24,6 +25,8 @@ public class ExecuteActivityParameters implements Cloneable {
     private String control;
     private long heartbeatTimeoutSeconds = FlowConstants.USE_REGISTERED_DEFAULTS;
     private String input;
+    private Object[] inputArguments;
+    private DataConverter inputConverter;
     private long scheduleToCloseTimeoutSeconds = FlowConstants.USE_REGISTERED_DEFAULTS;
     private long scheduleToStartTimeoutSeconds = FlowConstants.USE_REGISTERED_DEFAULTS;
     private long startToCloseTimeoutSeconds = FlowConstants.USE_REGISTERED_DEFAULTS;
@@ -161,6 +164,11 @@ public class ExecuteActivityParameters implements Cloneable {
      * @return The value of the Input property for this object.
      */
     public String getInput() {
+        if (inputConverter != null) {
+            input = inputConverter.toData(inputArguments);
+            inputArguments = null;
+            inputConverter = null;
+        }
         return input;
     }
     
@@ -174,6 +182,37 @@ public class ExecuteActivityParameters implements Cloneable {
      */
     public void setInput(String input) {
         this.input = input;
+        inputArguments = null;
+        inputConverter = null;
+    }
+
+    /**
+     * Sets arguments that are converted to the Input property on the first
+     * {@link #getInput()} call. It allows skipping conversion when the input
+     * is not needed, for example for activities that are scheduled again while
+     * the workflow history is replayed.
+     * <p>
+     * The arguments must not be modified until the input is converted.
+     *
+     * @param converter used to convert the arguments
+     * @param arguments the arguments to be converted
+     */
+    public void setInput(DataConverter converter, Object[] arguments) {
+        if (converter == null) {
+            throw new IllegalArgumentException("null converter");
+        }
+        input = null;
+        inputArguments = arguments;
+        inputConverter = converter;
+    }
+
+    /**
+     * @return <code>true</code> if the input was set through
+     *         {@link #setInput(DataConverter, Object[])} and is not converted
+     *         yet
+     */
+    public boolean isInputConversionPending() {
+        return inputConverter != null;
     }
     
     /**
@@ -190,7 +229,7 @@ public class ExecuteActivityParameters implements Cloneable {
      *         together. 
      */
     public ExecuteActivityParameters withInput(String input) {
-        this.input = input;
+        setInput(input);
         return this;
     }    
     
@@ -441,7 +480,7 @@ public class ExecuteActivityParameters implements Cloneable {
         sb.append("{");
         sb.append("ActivityType: " + activityType + ", ");
         sb.append("ActivityId: " + activityId + ", ");
-        sb.append("Input: " + input + ", ");
+        sb.append("Input: " + (isInputConversionPending() ? "<not converted>" : input) + ", ");
         sb.append("Control: " + control + ", ");
         sb.append("HeartbeatTimeout: " + heartbeatTimeoutSeconds + ", ");
         sb.append("ScheduleToStartTimeout: " + scheduleToStartTimeoutSeconds + ", ");
@@ -457,7 +496,9 @@ public class ExecuteActivityParameters implements Cloneable {
         ExecuteActivityParameters result = new ExecuteActivityParameters();
         result.setActivityType(activityType);
         result.setActivityId(activityId);
-        result.setInput(input);
+        result.input = input;
+        result.inputArguments = inputArguments;
+        result.inputConverter = inputConverter;
         result.setControl(control);
         result.setHeartbeatTimeoutSeconds(heartbeatTimeoutSeconds);
         result.setScheduleToStartTimeoutSeconds(scheduleToStartTimeoutSeconds);
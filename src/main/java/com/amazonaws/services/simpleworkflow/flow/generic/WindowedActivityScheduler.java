@@ -0,0 +1,189 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.generic;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.amazonaws.services.simpleworkflow.flow.DecisionContextProviderImpl;
+import com.amazonaws.services.simpleworkflow.flow.WorkflowClock;
+import com.amazonaws.services.simpleworkflow.flow.core.Promise;
+import com.amazonaws.services.simpleworkflow.flow.core.Settable;
+import com.amazonaws.services.simpleworkflow.flow.core.Task;
+import com.amazonaws.services.simpleworkflow.flow.core.TryFinally;
+
+/**
+ * Schedules a large number of activities keeping no more then a given number
+ * of them open at a time. Next activity is scheduled as soon as one of the
+ * open ones is closed.
+ * <p>
+ * Scheduling thousands of activities at once leads to the decision list being
+ * truncated to the maximum number of decisions per completion with an
+ * additional timer that forces an immediate decision for the rest. So every
+ * hundred of activities costs an extra decision task and two timer events.
+ * So independently of the window no more than
+ * {@link #MAXIMUM_SCHEDULED_PER_DECISION} activities are scheduled from a
+ * single decision. Free slots left after that are filled by the next decision,
+ * which happens when any of the open activities closes.
+ * <p>
+ * Parameters are pulled from the iterator only when there is a free slot, so
+ * they can be generated lazily. Failure of any activity cancels the other
+ * open ones and is rethrown to the enclosing
+ * {@link com.amazonaws.services.simpleworkflow.flow.core.TryCatchFinally}.
+ */
+public class WindowedActivityScheduler {
+
+    /**
+     * Leaves a single decision out of the maximum per completion for a
+     * decision that workflow code adds in the same decision task.
+     */
+    public static final int MAXIMUM_SCHEDULED_PER_DECISION = 99;
+
+    /**
+     * Window used when none is given. Larger windows are fine as the number of
+     * activities scheduled per decision is limited separately.
+     */
+    public static final int DEFAULT_MAXIMUM_IN_FLIGHT = 99;
+
+    private final GenericActivityClient client;
+
+    private final WorkflowClock clock;
+
+    private final Iterator<ExecuteActivityParameters> parameters;
+
+    private final int maximumInFlight;
+
+    private final List<String> results = new ArrayList<String>();
+
+    private final Settable<List<String>> result = new Settable<List<String>>();
+
+    private TryFinally owner;
+
+    private int inFlight;
+
+    /**
+     * Identifies the decision by the time of its start
+     */
+    private long decisionTime = Long.MIN_VALUE;
+
+    private int scheduledInDecision;
+
+    private WindowedActivityScheduler(GenericActivityClient client, WorkflowClock clock,
+            Iterator<ExecuteActivityParameters> parameters, int maximumInFlight) {
+        if (maximumInFlight < 1) {
+            throw new IllegalArgumentException("0 or negative maximumInFlight");
+        }
+        this.client = client;
+        this.clock = clock;
+        this.parameters = parameters;
+        this.maximumInFlight = maximumInFlight;
+    }
+
+    /**
+     * Must be called from a workflow code.
+     * 
+     * @param client
+     *            client used to schedule activities
+     * @param parameters
+     *            activities to schedule
+     * @param maximumInFlight
+     *            maximum number of activities that are scheduled and not
+     *            closed yet
+     * @param waitFor
+     *            promises that have to be ready before the first activity is
+     *            scheduled
+     * @return Promise to results of all the activities in the order of
+     *         parameters
+     */
+    public static Promise<List<String>> scheduleActivityTasks(GenericActivityClient client,
+            Iterator<ExecuteActivityParameters> parameters, int maximumInFlight, Promise<?>... waitFor) {
+        WorkflowClock clock = new DecisionContextProviderImpl().getDecisionContext().getWorkflowClock();
+        return scheduleActivityTasks(client, clock, parameters, maximumInFlight, waitFor);
+    }
+
+    /**
+     * Must be called from a workflow code.
+     * 
+     * @param client
+     *            client used to schedule activities
+     * @param clock
+     *            clock of the workflow used to tell decisions apart
+     * @param parameters
+     *            activities to schedule
+     * @param maximumInFlight
+     *            maximum number of activities that are scheduled and not
+     *            closed yet
+     * @param waitFor
+     *            promises that have to be ready before the first activity is
+     *            scheduled
+     * @return Promise to results of all the activities in the order of
+     *         parameters
+     */
+    public static Promise<List<String>> scheduleActivityTasks(GenericActivityClient client, WorkflowClock clock,
+            Iterator<ExecuteActivityParameters> parameters, int maximumInFlight, Promise<?>... waitFor) {
+        final WindowedActivityScheduler scheduler = new WindowedActivityScheduler(client, clock, parameters,
+                maximumInFlight);
+        scheduler.owner = new TryFinally(waitFor) {
+
+            @Override
+            protected void doTry() throws Throwable {
+                scheduler.fill();
+            }
+
+            @Override
+            protected void doFinally() throws Throwable {
+            }
+        };
+        return scheduler.result;
+    }
+
+    /**
+     * Activities scheduled from the same decision are added to the same
+     * decision completion. Completion tasks are created as children of the
+     * owner, so the task tree doesn't grow with the number of activities.
+     * Decisions are told apart by the clock which is set to the decision
+     * start time. Nothing open means that the last of the activities has just
+     * closed, which is never in the decision that scheduled it, so the count
+     * is reset as well in case two decisions ever share the time.
+     */
+    private void fill() {
+        long currentTime = clock.currentTimeMillis();
+        if (currentTime != decisionTime || inFlight == 0) {
+            decisionTime = currentTime;
+            scheduledInDecision = 0;
+        }
+        while (inFlight < maximumInFlight && scheduledInDecision < MAXIMUM_SCHEDULED_PER_DECISION
+                && parameters.hasNext()) {
+            final int index = results.size();
+            results.add(null);
+            inFlight++;
+            scheduledInDecision++;
+            final Promise<String> activityResult = client.scheduleActivityTask(parameters.next());
+            new Task(owner, activityResult) {
+
+                @Override
+                protected void doExecute() throws Throwable {
+                    results.set(index, activityResult.get());
+                    inFlight--;
+                    fill();
+                }
+            };
+        }
+        if (inFlight == 0) {
+            result.set(results);
+        }
+    }
+}
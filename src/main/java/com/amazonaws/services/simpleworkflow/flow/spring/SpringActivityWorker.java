@@ -24,7 +24,9 @@ import com.amazonaws.services.simpleworkflow.AmazonSimpleWorkflow;
 import com.amazonaws.services.simpleworkflow.flow.DataConverter;
 import com.amazonaws.services.simpleworkflow.flow.WorkerBase;
 import com.amazonaws.services.simpleworkflow.flow.pojo.POJOActivityImplementationFactory;
+import com.amazonaws.services.simpleworkflow.flow.worker.BackoffJitter;
 import com.amazonaws.services.simpleworkflow.flow.worker.GenericActivityWorker;
+import com.amazonaws.services.simpleworkflow.flow.worker.GenericWorker;
 import com.amazonaws.services.simpleworkflow.model.ActivityType;
 
 public class SpringActivityWorker implements WorkerBase, SmartLifecycle {
@@ -152,6 +154,17 @@ public class SpringActivityWorker implements WorkerBase, SmartLifecycle {
     public void setPollBackoffCoefficient(double backoffCoefficient) {
         genericWorker.setPollBackoffCoefficient(backoffCoefficient);
     }
+
+    public BackoffJitter getPollBackoffJitter() {
+        return genericWorker.getPollBackoffJitter();
+    }
+
+    /**
+     * @see GenericWorker#setPollBackoffJitter(BackoffJitter)
+     */
+    public void setPollBackoffJitter(BackoffJitter pollBackoffJitter) {
+        genericWorker.setPollBackoffJitter(pollBackoffJitter);
+    }
     
     public int getPollThreadCount() {
         return genericWorker.getPollThreadCount();
@@ -160,6 +173,33 @@ public class SpringActivityWorker implements WorkerBase, SmartLifecycle {
     public void setPollThreadCount(int threadCount) {
         genericWorker.setPollThreadCount(threadCount);
     }
+
+    public int getMinimumPollThreadCount() {
+        return genericWorker.getMinimumPollThreadCount();
+    }
+
+    public void setMinimumPollThreadCount(int minimumPollThreadCount) {
+        genericWorker.setMinimumPollThreadCount(minimumPollThreadCount);
+    }
+
+    public int getMaximumPollThreadCount() {
+        return genericWorker.getMaximumPollThreadCount();
+    }
+
+    /**
+     * @see GenericWorker#setMaximumPollThreadCount(int)
+     */
+    public void setMaximumPollThreadCount(int maximumPollThreadCount) {
+        genericWorker.setMaximumPollThreadCount(maximumPollThreadCount);
+    }
+
+    public int getActivePollThreadCount() {
+        return genericWorker.getActivePollThreadCount();
+    }
+
+    public String getPollThreadScalingDecision() {
+        return genericWorker.getPollThreadScalingDecision();
+    }
     
     public int getTaskExecutorThreadPoolSize() {
         return genericWorker.getTaskExecutorThreadPoolSize();
@@ -168,6 +208,28 @@ public class SpringActivityWorker implements WorkerBase, SmartLifecycle {
     public void setTaskExecutorThreadPoolSize(int taskExecutorThreadPoolSize) {
         genericWorker.setTaskExecutorThreadPoolSize(taskExecutorThreadPoolSize);
     }
+
+    public long getHeartbeatMinimumIntervalMillis() {
+        return genericWorker.getHeartbeatMinimumIntervalMillis();
+    }
+
+    /**
+     * @see GenericActivityWorker#setHeartbeatMinimumIntervalMillis(long)
+     */
+    public void setHeartbeatMinimumIntervalMillis(long heartbeatMinimumIntervalMillis) {
+        genericWorker.setHeartbeatMinimumIntervalMillis(heartbeatMinimumIntervalMillis);
+    }
+
+    public boolean isUseVirtualThreads() {
+        return genericWorker.isUseVirtualThreads();
+    }
+
+    /**
+     * @see GenericWorker#setUseVirtualThreads(boolean)
+     */
+    public void setUseVirtualThreads(boolean useVirtualThreads) {
+        genericWorker.setUseVirtualThreads(useVirtualThreads);
+    }
     
     public boolean isDisableServiceShutdownOnStop() {
         return genericWorker.isDisableServiceShutdownOnStop();
@@ -39,6 +39,8 @@ class ActivityExecutionContextImpl extends ActivityExecutionContext {
     
     private final ActivityTask task;
 
+    private final ActivityHeartbeatService.Heartbeat heartbeat;
+
     /**
      * Create an ActivityExecutionContextImpl with the given attributes.
      * 
@@ -52,9 +54,20 @@ class ActivityExecutionContextImpl extends ActivityExecutionContext {
      * @see ActivityExecutionContext
      */
     public ActivityExecutionContextImpl(AmazonSimpleWorkflow service, String domain, ActivityTask task) {
+        this(service, domain, task, null);
+    }
+
+    /**
+     * @param heartbeatService
+     *            if not null heartbeats are reported in background through it
+     *            until {@link #close()} is called
+     */
+    ActivityExecutionContextImpl(AmazonSimpleWorkflow service, String domain, ActivityTask task,
+            ActivityHeartbeatService heartbeatService) {
         this.domain = domain;
         this.service = service;
         this.task = task;
+        this.heartbeat = heartbeatService == null ? null : heartbeatService.newHeartbeat(task.getTaskToken());
     }
 
     /**
@@ -63,8 +76,13 @@ class ActivityExecutionContextImpl extends ActivityExecutionContext {
      */
     @Override
     public void recordActivityHeartbeat(String details) throws CancellationException {
-        //TODO: call service with the specified minimal interval (through @ActivityExecutionOptions)
-        // allowing more frequent calls of this method.
+        // Activity that completes manually can heartbeat after close
+        if (heartbeat != null && !heartbeat.isClosed()) {
+            if (heartbeat.record(details)) {
+                throw new CancellationException();
+            }
+            return;
+        }
         RecordActivityTaskHeartbeatRequest r = new RecordActivityTaskHeartbeatRequest();
         r.setTaskToken(task.getTaskToken());
         r.setDetails(details);
@@ -106,4 +124,13 @@ class ActivityExecutionContextImpl extends ActivityExecutionContext {
         return domain;
     }
 
+    /**
+     * Stops background heartbeat reporting.
+     */
+    void close() {
+        if (heartbeat != null) {
+            heartbeat.close();
+        }
+    }
+
 }
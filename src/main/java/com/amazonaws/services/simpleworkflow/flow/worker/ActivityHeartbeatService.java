@@ -0,0 +1,230 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.services.simpleworkflow.AmazonSimpleWorkflow;
+import com.amazonaws.services.simpleworkflow.model.ActivityTaskStatus;
+import com.amazonaws.services.simpleworkflow.model.RecordActivityTaskHeartbeatRequest;
+
+/**
+ * Reports activity heartbeats in background. Heartbeats of a task are sent not
+ * more often then once per the minimum interval, and only the latest details
+ * recorded during the interval are sent. Cancellation requests and failures
+ * returned by the service are delivered to the activity on its next heartbeat
+ * call.
+ * <p>
+ * The service must be shut down only after activities stopped running.
+ * Heartbeats recorded after the shutdown are sent synchronously by the
+ * calling thread.
+ */
+class ActivityHeartbeatService {
+
+    private static final Log log = LogFactory.getLog(ActivityHeartbeatService.class);
+
+    /**
+     * Heartbeat state of a single activity task.
+     */
+    class Heartbeat implements Runnable {
+
+        private final String taskToken;
+
+        private String details;
+
+        private boolean pending;
+
+        private boolean scheduled;
+
+        private boolean closed;
+
+        private long lastSentTime;
+
+        private boolean cancelRequested;
+
+        private RuntimeException failure;
+
+        Heartbeat(String taskToken) {
+            this.taskToken = taskToken;
+        }
+
+        /**
+         * Records details to be sent with the next heartbeat. Never blocks on
+         * a service call.
+         * 
+         * @return true if cancellation of the activity was requested
+         * @throws RuntimeException
+         *             failure of a previous heartbeat
+         */
+        boolean record(String details) {
+            long delay;
+            synchronized (this) {
+                throwFailure();
+                this.details = details;
+                pending = true;
+                if (scheduled || closed) {
+                    return cancelRequested;
+                }
+                scheduled = true;
+                delay = Math.max(0, lastSentTime + minimumIntervalMillis - System.currentTimeMillis());
+            }
+            try {
+                executor.schedule(this, delay, TimeUnit.MILLISECONDS);
+            }
+            catch (RejectedExecutionException e) {
+                // The service is shut down while the activity is still running
+                sendSynchronously();
+                synchronized (this) {
+                    throwFailure();
+                }
+            }
+            return cancelRequested();
+        }
+
+        private void throwFailure() {
+            if (failure != null) {
+                RuntimeException e = failure;
+                failure = null;
+                throw e;
+            }
+        }
+
+        synchronized boolean cancelRequested() {
+            return cancelRequested;
+        }
+
+        /**
+         * Stops background reporting. Called when the activity execution
+         * method returns.
+         */
+        synchronized void close() {
+            closed = true;
+        }
+
+        synchronized boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public void run() {
+            if (!send()) {
+                return;
+            }
+            try {
+                executor.schedule(this, minimumIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+            catch (RejectedExecutionException e) {
+                sendSynchronously();
+            }
+        }
+
+        /**
+         * Sends pending details ignoring the minimum interval. Used after the
+         * service is shut down.
+         */
+        private void sendSynchronously() {
+            while (send()) {
+            }
+        }
+
+        /**
+         * Sends the pending details if any.
+         * 
+         * @return true if new details were recorded during the call and the
+         *         heartbeat is still scheduled. Otherwise it is marked as not
+         *         scheduled.
+         */
+        private boolean send() {
+            String toSend;
+            synchronized (this) {
+                if (closed || !pending) {
+                    scheduled = false;
+                    return false;
+                }
+                toSend = details;
+                pending = false;
+            }
+            boolean cancel = false;
+            RuntimeException error = null;
+            try {
+                RecordActivityTaskHeartbeatRequest r = new RecordActivityTaskHeartbeatRequest();
+                r.setTaskToken(taskToken);
+                r.setDetails(toSend);
+                ActivityTaskStatus status = service.recordActivityTaskHeartbeat(r);
+                cancel = status.isCancelRequested();
+            }
+            catch (RuntimeException e) {
+                if (log.isWarnEnabled()) {
+                    log.warn("Failure reporting heartbeat of taskToken=" + taskToken, e);
+                }
+                error = e;
+            }
+            synchronized (this) {
+                lastSentTime = System.currentTimeMillis();
+                cancelRequested |= cancel;
+                if (error != null) {
+                    failure = error;
+                }
+                if (!pending || closed) {
+                    scheduled = false;
+                    return false;
+                }
+                return true;
+            }
+        }
+    }
+
+    private final AmazonSimpleWorkflow service;
+
+    private final long minimumIntervalMillis;
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * @param threadCount
+     *            number of threads that make heartbeat calls
+     */
+    ActivityHeartbeatService(AmazonSimpleWorkflow service, long minimumIntervalMillis, int threadCount,
+            ThreadFactory threadFactory) {
+        if (minimumIntervalMillis <= 0) {
+            throw new IllegalArgumentException("0 or negative minimumIntervalMillis");
+        }
+        this.service = service;
+        this.minimumIntervalMillis = minimumIntervalMillis;
+        executor = new ScheduledThreadPoolExecutor(threadCount, threadFactory);
+    }
+
+    Heartbeat newHeartbeat(String taskToken) {
+        return new Heartbeat(taskToken);
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    void shutdownNow() {
+        executor.shutdownNow();
+    }
+
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+}
@@ -19,6 +19,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -36,6 +37,8 @@ public class ActivityTaskPoller extends SynchronousActivityTaskPoller {
 
     protected Semaphore pollSemaphore;
 
+    private final AtomicInteger tasksInProgress = new AtomicInteger();
+
     private UncaughtExceptionHandler uncaughtExceptionHandler = new UncaughtExceptionHandler() {
 
         @Override
@@ -50,6 +53,19 @@ public class ActivityTaskPoller extends SynchronousActivityTaskPoller {
         setTaskExecutorService(taskExecutorService);
     }
 
+    /**
+     * @param pollSemaphore
+     *            limits number of concurrently executed tasks independently of
+     *            the executor pool size. Useful with executors that start a
+     *            new (virtual) thread per task.
+     */
+    public ActivityTaskPoller(AmazonSimpleWorkflow service, String domain, String pollTaskList,
+            ActivityImplementationFactory activityImplementationFactory, ThreadPoolExecutor taskExecutorService,
+            Semaphore pollSemaphore) {
+        this(service, domain, pollTaskList, activityImplementationFactory, taskExecutorService);
+        this.pollSemaphore = pollSemaphore;
+    }
+
     public ExecutorService getTaskExecutorService() {
         return taskExecutorService;
     }
@@ -83,18 +99,27 @@ public class ActivityTaskPoller extends SynchronousActivityTaskPoller {
                 return false;
             }
             semaphoreNeedsRelease = false;
+            final long polled = System.nanoTime();
             try {
                 taskExecutorService.execute(new Runnable() {
 
                     @Override
                     public void run() {
+                        int inProgress = tasksInProgress.incrementAndGet();
                         try {
+                            WorkerMetrics metrics = getMetrics();
+                            if (metrics != null) {
+                                metrics.recordTime(WorkerMetrics.ACTIVITY_TASK_QUEUE_TIME,
+                                        WorkerMetrics.getType(task.getActivityType()), System.nanoTime() - polled);
+                                metrics.recordValue(WorkerMetrics.ACTIVITY_TASKS_IN_PROGRESS, null, inProgress);
+                            }
                             execute(task);
                         }
                         catch (Throwable ee) {
                             uncaughtExceptionHandler.uncaughtException(Thread.currentThread(), wrapFailure(task, ee));
                         }
                         finally {
+                            tasksInProgress.decrementAndGet();
                             pollSemaphore.release();
                         }
                     }
@@ -116,6 +141,13 @@ public class ActivityTaskPoller extends SynchronousActivityTaskPoller {
         return true;
     }
 
+    /**
+     * @return number of tasks that are being executed
+     */
+    public int getTasksInProgress() {
+        return tasksInProgress.get();
+    }
+
     private Exception wrapFailure(final ActivityTask task, Throwable failure) {
         WorkflowExecution execution = task.getWorkflowExecution();
 
@@ -128,15 +160,23 @@ public class ActivityTaskPoller extends SynchronousActivityTaskPoller {
     @Override
     public void shutdown() {
         taskExecutorService.shutdown();
+        super.shutdown();
     }
 
     @Override
     public void shutdownNow() {
         taskExecutorService.shutdownNow();
+        super.shutdownNow();
     }
 
     @Override
     public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
-        return taskExecutorService.awaitTermination(timeout, unit);
+        long start = System.nanoTime();
+        if (!taskExecutorService.awaitTermination(timeout, unit)) {
+            return false;
+        }
+        // Heartbeat service is shut down only after all activities completed
+        long left = unit.toNanos(timeout) - (System.nanoTime() - start);
+        return super.awaitTermination(Math.max(0, left), TimeUnit.NANOSECONDS);
     }
 }
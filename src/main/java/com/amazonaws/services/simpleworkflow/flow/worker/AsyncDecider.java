@@ -25,7 +25,9 @@ import com.amazonaws.AmazonServiceException;
 import com.amazonaws.AmazonServiceException.ErrorType;
 import com.amazonaws.services.simpleworkflow.flow.DecisionContext;
 import com.amazonaws.services.simpleworkflow.flow.WorkflowException;
+import com.amazonaws.services.simpleworkflow.flow.WorkflowExecutionLocal;
 import com.amazonaws.services.simpleworkflow.flow.core.AsyncScope;
+import com.amazonaws.services.simpleworkflow.flow.core.AsyncStackTraceCapture;
 import com.amazonaws.services.simpleworkflow.flow.core.AsyncTaskInfo;
 import com.amazonaws.services.simpleworkflow.flow.core.Promise;
 import com.amazonaws.services.simpleworkflow.flow.core.Task;
@@ -35,7 +37,6 @@ import com.amazonaws.services.simpleworkflow.flow.generic.WorkflowDefinitionFact
 import com.amazonaws.services.simpleworkflow.flow.worker.HistoryHelper.EventsIterator;
 import com.amazonaws.services.simpleworkflow.model.DecisionTask;
 import com.amazonaws.services.simpleworkflow.model.EventType;
-import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
 import com.amazonaws.services.simpleworkflow.model.StartTimerFailedEventAttributes;
 import com.amazonaws.services.simpleworkflow.model.TimerFiredEventAttributes;
 import com.amazonaws.services.simpleworkflow.model.TimerStartedEventAttributes;
@@ -46,8 +47,10 @@ class AsyncDecider {
 
     private static abstract class WorkflowAsyncScope extends AsyncScope {
 
-        public WorkflowAsyncScope() {
-            super(false, true);
+        public WorkflowAsyncScope(AsyncStackTraceCapture stackTraceCapture) {
+            // Decider is always driven by the single thread that handles a decision task
+            super(false, true, true);
+            setAsyncStackTraceCapture(stackTraceCapture);
         }
 
         public abstract Promise<String> getOutput();
@@ -60,8 +63,9 @@ class AsyncDecider {
 
         private Promise<String> output;
 
-        public WorkflowExecuteAsyncScope(HistoryEvent event) {
-            assert event.getEventType().equals(EventType.WorkflowExecutionStarted.toString());
+        public WorkflowExecuteAsyncScope(CompactHistoryEvent event) {
+            super(stackTraceCapture);
+            assert event.getEventType() == EventType.WorkflowExecutionStarted;
             this.attributes = event.getWorkflowExecutionStartedEventAttributes();
         }
 
@@ -86,6 +90,7 @@ class AsyncDecider {
         private boolean cancellation;
 
         public UnhandledSignalAsyncScope(Promise<String> output, Throwable failure, boolean cancellation) {
+            super(stackTraceCapture);
             this.output = output;
             this.failure = failure;
             this.cancellation = cancellation;
@@ -131,7 +136,7 @@ class AsyncDecider {
 
     private WorkflowDefinition definition;
 
-    private final HistoryHelper historyHelper;
+    private HistoryHelper historyHelper;
 
     private final DecisionsHelper decisionsHelper;
 
@@ -157,16 +162,43 @@ class AsyncDecider {
 
     private Throwable failure;
 
+    private final boolean cacheable;
+
+    /**
+     * Values of {@link WorkflowExecutionLocal}s detached from the decision
+     * thread while this decider is kept in a {@link DeciderCache}.
+     * <code>null</code> if the decider is not retained.
+     */
+    private Object executionLocals;
+
+    private long decisionTaskStartedEventId;
+
+    private AsyncStackTraceCapture stackTraceCapture;
+
     public AsyncDecider(WorkflowDefinitionFactory workflowDefinitionFactory, HistoryHelper historyHelper,
             DecisionsHelper decisionsHelper) throws Exception {
+        this(workflowDefinitionFactory, historyHelper, decisionsHelper, false);
+    }
+
+    /**
+     * @param cacheable
+     *            when <code>true</code> the workflow definition is not
+     *            released after the decision if the workflow is still open.
+     *            Then the decider can be continued with the next decision task
+     *            through {@link #decideNext(HistoryHelper)} and must be
+     *            released through {@link #close()}.
+     */
+    public AsyncDecider(WorkflowDefinitionFactory workflowDefinitionFactory, HistoryHelper historyHelper,
+            DecisionsHelper decisionsHelper, boolean cacheable) throws Exception {
         this.workflowDefinitionFactory = workflowDefinitionFactory;
+        this.cacheable = cacheable;
         this.historyHelper = historyHelper;
         this.decisionsHelper = decisionsHelper;
-        this.activityClient = new GenericActivityClientImpl(decisionsHelper);
+        this.workflowClock = new WorkflowClockImpl(decisionsHelper);
+        this.activityClient = new GenericActivityClientImpl(decisionsHelper, workflowClock);
         DecisionTask decisionTask = historyHelper.getDecisionTask();
-        workflowContext = new WorkfowContextImpl(decisionTask);
+        workflowContext = new WorkfowContextImpl(decisionTask, historyHelper.getEvents().getEvents());
         this.workflowClient = new GenericWorkflowClientImpl(decisionsHelper, workflowContext);
-        this.workflowClock = new WorkflowClockImpl(decisionsHelper);
         this.lambdaFunctionClient = new LambdaFunctionClientImpl(decisionsHelper);
         context = new DecisionContextImpl(activityClient, workflowClient, workflowClock, 
         		workflowContext, lambdaFunctionClient);
@@ -176,11 +208,43 @@ class AsyncDecider {
         return cancelRequested;
     }
 
-    private void handleWorkflowExecutionStarted(HistoryEvent event) {
+    /**
+     * Must be called before the first decision.
+     * 
+     * @param capture
+     *            how call sites of workflow tasks are recorded. null means
+     *            {@link AsyncStackTraceCapture#FULL}.
+     * @param skipDuringReplay
+     *            do not record call sites of tasks created while replaying
+     *            already processed events.
+     */
+    public void setAsyncStackTraceCapture(final AsyncStackTraceCapture capture, boolean skipDuringReplay) {
+        if (!skipDuringReplay) {
+            stackTraceCapture = capture;
+            return;
+        }
+        stackTraceCapture = new AsyncStackTraceCapture() {
+
+            @Override
+            public boolean isCaptured() {
+                if (workflowClock.isReplaying()) {
+                    return false;
+                }
+                return capture == null || capture.isCaptured();
+            }
+
+            @Override
+            public boolean isLazy() {
+                return capture != null && capture.isLazy();
+            }
+        };
+    }
+
+    private void handleWorkflowExecutionStarted(CompactHistoryEvent event) {
         workflowAsyncScope = new WorkflowExecuteAsyncScope(event);
     }
 
-    private void processEvent(HistoryEvent event, EventType eventType) throws Throwable {
+    private void processEvent(CompactHistoryEvent event, EventType eventType) throws Throwable {
         switch (eventType) {
         case ActivityTaskCanceled:
             activityClient.handleActivityTaskCanceled(event);
@@ -338,7 +402,7 @@ class AsyncDecider {
         }
     }
 
-    private void eventLoop(HistoryEvent event) throws Throwable {
+    private void eventLoop(CompactHistoryEvent event) throws Throwable {
         if (completed) {
             return;
         }
@@ -384,16 +448,16 @@ class AsyncDecider {
         }
     }
 
-    private void handleDecisionTaskStarted(HistoryEvent event) throws Throwable {
+    private void handleDecisionTaskStarted(CompactHistoryEvent event) throws Throwable {
     }
 
-    private void handleWorkflowExecutionCancelRequested(HistoryEvent event) throws Throwable {
+    private void handleWorkflowExecutionCancelRequested(CompactHistoryEvent event) throws Throwable {
         workflowContext.setCancelRequested(true);
         workflowAsyncScope.cancel(new CancellationException());
         cancelRequested = true;
     }
 
-    private void handleStartTimerFailed(HistoryEvent event) {
+    private void handleStartTimerFailed(CompactHistoryEvent event) {
         StartTimerFailedEventAttributes attributes = event.getStartTimerFailedEventAttributes();
         String timerId = attributes.getTimerId();
         if (timerId.equals(DecisionsHelper.FORCE_IMMEDIATE_DECISION_TIMER)) {
@@ -402,7 +466,7 @@ class AsyncDecider {
         workflowClock.handleStartTimerFailed(event);
     }
 
-    private void handleTimerFired(HistoryEvent event) throws Throwable {
+    private void handleTimerFired(CompactHistoryEvent event) throws Throwable {
         TimerFiredEventAttributes attributes = event.getTimerFiredEventAttributes();
         String timerId = attributes.getTimerId();
         if (timerId.equals(DecisionsHelper.FORCE_IMMEDIATE_DECISION_TIMER)) {
@@ -411,7 +475,7 @@ class AsyncDecider {
         workflowClock.handleTimerFired(event.getEventId(), attributes);
     }
 
-    private void handleTimerStarted(HistoryEvent event) {
+    private void handleTimerStarted(CompactHistoryEvent event) {
         TimerStartedEventAttributes attributes = event.getTimerStartedEventAttributes();
         String timerId = attributes.getTimerId();
         if (timerId.equals(DecisionsHelper.FORCE_IMMEDIATE_DECISION_TIMER)) {
@@ -420,8 +484,8 @@ class AsyncDecider {
         decisionsHelper.handleTimerStarted(event);
     }
 
-    private void handleWorkflowExecutionSignaled(HistoryEvent event) throws Throwable {
-        assert (event.getEventType().equals(EventType.WorkflowExecutionSignaled.toString()));
+    private void handleWorkflowExecutionSignaled(CompactHistoryEvent event) throws Throwable {
+        assert event.getEventType() == EventType.WorkflowExecutionSignaled;
         final WorkflowExecutionSignaledEventAttributes signalAttributes = event.getWorkflowExecutionSignaledEventAttributes();
         if (completed) {
             workflowAsyncScope = new UnhandledSignalAsyncScope(workflowAsyncScope.getOutput(), workflowAsyncScope.getFailure(),
@@ -439,29 +503,36 @@ class AsyncDecider {
         };
     }
 
-    private void handleDecisionTaskCompleted(HistoryEvent event) {
+    private void handleDecisionTaskCompleted(CompactHistoryEvent event) {
         decisionsHelper.handleDecisionCompletion(event.getDecisionTaskCompletedEventAttributes());
     }
 
     public void decide() throws Exception {
+        boolean retain = false;
         try {
-            definition = workflowDefinitionFactory.getWorkflowDefinition(context);
-            if (definition == null) {
-                throw new IllegalStateException("Unknown workflow type: " + context.getWorkflowContext().getWorkflowType());
+            if (executionLocals == null) {
+                definition = workflowDefinitionFactory.getWorkflowDefinition(context);
+                if (definition == null) {
+                    throw new IllegalStateException("Unknown workflow type: " + context.getWorkflowContext().getWorkflowType());
+                }
+            }
+            else {
+                WorkflowExecutionLocal.attach(executionLocals);
+                executionLocals = null;
             }
             long lastNonReplayedEventId = historyHelper.getLastNonReplayEventId();
             // Buffer events until the next DecisionTaskStarted and then process them
             // setting current time to the time of DecisionTaskStarted event
             EventsIterator eventsIterator = historyHelper.getEvents();
-            List<HistoryEvent> reordered = null;
+            List<CompactHistoryEvent> reordered = null;
             do {
-                List<HistoryEvent> decisionStartToCompletionEvents = new ArrayList<HistoryEvent>();
-                List<HistoryEvent> decisionCompletionToStartEvents = new ArrayList<HistoryEvent>();
+                List<CompactHistoryEvent> decisionStartToCompletionEvents = new ArrayList<CompactHistoryEvent>();
+                List<CompactHistoryEvent> decisionCompletionToStartEvents = new ArrayList<CompactHistoryEvent>();
                 boolean concurrentToDecision = true;
                 int lastDecisionIndex = -1;
                 while (eventsIterator.hasNext()) {
-                    HistoryEvent event = eventsIterator.next();
-                    EventType eventType = EventType.valueOf(event.getEventType());
+                    CompactHistoryEvent event = eventsIterator.next();
+                    EventType eventType = event.getEventType();
                     if (eventType == EventType.DecisionTaskCompleted) {
                         decisionsHelper.setWorkflowContextData(event.getDecisionTaskCompletedEventAttributes().getExecutionContext());
                         concurrentToDecision = false;
@@ -470,7 +541,7 @@ class AsyncDecider {
                         decisionsHelper.handleDecisionTaskStartedEvent();
 
                         if (!eventsIterator.isNextDecisionTimedOut()) {
-                            long replayCurrentTimeMilliseconds = event.getEventTimestamp().getTime();
+                            long replayCurrentTimeMilliseconds = event.getEventTimestamp();
                             workflowClock.setReplayCurrentTimeMilliseconds(replayCurrentTimeMilliseconds);
                             break;
                         }
@@ -495,7 +566,7 @@ class AsyncDecider {
                 // The main difference is that events that were added during decision task execution 
                 // should be processed after events that correspond to the decisions. 
                 // Otherwise the replay is going to break.
-                reordered = new ArrayList<HistoryEvent>(size);
+                reordered = new ArrayList<CompactHistoryEvent>(size);
                 // First are events that correspond to the previous task decisions
                 if (lastDecisionIndex >= 0) {
                     reordered.addAll(decisionCompletionToStartEvents.subList(0, lastDecisionIndex + 1));
@@ -507,11 +578,11 @@ class AsyncDecider {
                     reordered.addAll(decisionCompletionToStartEvents.subList(lastDecisionIndex + 1,
                             decisionCompletionToStartEvents.size()));
                 }
-                for (HistoryEvent event : reordered) {
+                for (CompactHistoryEvent event : reordered) {
                     if (event.getEventId() >= lastNonReplayedEventId) {
                         workflowClock.setReplaying(false);
                     }
-                    EventType eventType = EventType.valueOf(event.getEventType());
+                    EventType eventType = event.getEventType();
                     processEvent(event, eventType);
                     eventLoop(event);
                 }
@@ -523,6 +594,8 @@ class AsyncDecider {
                 unhandledDecision = false;
                 completeWorkflow();
             }
+            decisionTaskStartedEventId = historyHelper.getDecisionTask().getStartedEventId();
+            retain = cacheable && !completed && !decisionsHelper.isWorkflowFailed();
         }
         catch (AmazonServiceException e) {
             // We don't want to fail workflow on service exceptions like 500 or throttling
@@ -553,8 +626,84 @@ class AsyncDecider {
             catch (Throwable e) {
                 decisionsHelper.setWorkflowContextData(e.getMessage());
             }
-            workflowDefinitionFactory.deleteWorkflowDefinition(this.definition);
+            if (retain) {
+                executionLocals = WorkflowExecutionLocal.detach();
+                // The next decision task brings its own history through decideNext
+                historyHelper = null;
+            }
+            else {
+                workflowDefinitionFactory.deleteWorkflowDefinition(this.definition);
+            }
+        }
+    }
+
+    /**
+     * Continues decision making of a decider that was retained after the
+     * previous decision task. Only events that follow DecisionTaskStarted of
+     * the previous decision task are replayed.
+     * 
+     * @param historyHelper
+     *            history of the new decision task. Its previousStartedEventId
+     *            must be equal to {@link #getDecisionTaskStartedEventId()}.
+     * @return <code>false</code> if the history doesn't contain the
+     *         DecisionTaskStarted event of the previous decision task. The
+     *         decider is not changed then and must be closed, and the history
+     *         is left at its beginning, so it can be replayed by a new decider.
+     */
+    boolean decideNext(HistoryHelper historyHelper) throws Exception {
+        if (!isRetained()) {
+            throw new IllegalStateException("decider is not retained");
+        }
+        if (!skipReplayedEvents(historyHelper)) {
+            return false;
+        }
+        this.historyHelper = historyHelper;
+        decide();
+        return true;
+    }
+
+    private boolean skipReplayedEvents(HistoryHelper historyHelper) {
+        EventsIterator events = historyHelper.getEvents();
+        // Skipped pages are retained until the skip is validated to allow full replay
+        events.mark();
+        CompactHistoryEvent lastDecisionTaskStarted = events.skipTo(decisionTaskStartedEventId);
+        if (lastDecisionTaskStarted == null
+                || lastDecisionTaskStarted.getEventType() != EventType.DecisionTaskStarted) {
+            events.reset();
+            return false;
+        }
+        events.unmark();
+        return true;
+    }
+
+    /**
+     * @return <code>true</code> if the workflow definition was kept after the
+     *         last decision and the decider can be continued through
+     *         {@link #decideNext(HistoryHelper)}
+     */
+    boolean isRetained() {
+        return executionLocals != null;
+    }
+
+    /**
+     * @return id of DecisionTaskStarted event of the last decision task
+     *         processed by this decider
+     */
+    long getDecisionTaskStartedEventId() {
+        return decisionTaskStartedEventId;
+    }
+
+    /**
+     * Releases workflow definition of a retained decider. Must not be called
+     * by a thread that is in the middle of a decision.
+     */
+    void close() {
+        if (executionLocals == null) {
+            return;
         }
+        WorkflowExecutionLocal.attach(executionLocals);
+        executionLocals = null;
+        workflowDefinitionFactory.deleteWorkflowDefinition(definition);
     }
 
     private boolean isDecisionEvent(EventType eventType) {
@@ -14,6 +14,8 @@
  */
 package com.amazonaws.services.simpleworkflow.flow.worker;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -21,6 +23,7 @@ import java.util.List;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import com.amazonaws.services.simpleworkflow.flow.core.AsyncStackTraceCapture;
 import com.amazonaws.services.simpleworkflow.flow.core.AsyncTaskInfo;
 import com.amazonaws.services.simpleworkflow.flow.generic.WorkflowDefinition;
 import com.amazonaws.services.simpleworkflow.flow.generic.WorkflowDefinitionFactory;
@@ -37,21 +40,135 @@ public class AsyncDecisionTaskHandler extends DecisionTaskHandler {
     private static final Log asyncThreadDumpLog = LogFactory.getLog(AsyncDecisionTaskHandler.class.getName()
             + ".waitingTasksStacks");
 
+    private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
     private final WorkflowDefinitionFactoryFactory definitionFactoryFactory;
 
+    private final DeciderCache deciderCache;
+
+    private AsyncStackTraceCapture asyncStackTraceCapture;
+
+    private boolean skipAsyncStackTraceDuringReplay;
+
+    private WorkerMetrics metrics;
+
     public AsyncDecisionTaskHandler(WorkflowDefinitionFactoryFactory definitionFactoryFactory) {
+        this(definitionFactoryFactory, 0);
+    }
+
+    /**
+     * @param deciderCacheSize
+     *            maximum number of open workflow executions which deciders are
+     *            kept in memory between decision tasks. Decision task of a
+     *            cached execution replays only events that were added after
+     *            the previous decision. 0 disables caching.
+     */
+    public AsyncDecisionTaskHandler(WorkflowDefinitionFactoryFactory definitionFactoryFactory, int deciderCacheSize) {
         this.definitionFactoryFactory = definitionFactoryFactory;
+        this.deciderCache = deciderCacheSize > 0 ? new DeciderCache(deciderCacheSize) : null;
+    }
+
+    public AsyncStackTraceCapture getAsyncStackTraceCapture() {
+        return asyncStackTraceCapture;
+    }
+
+    /**
+     * How call sites of workflow tasks are recorded when handling decision
+     * tasks. Thread dumps always capture them fully. Default is
+     * <code>null</code> which means {@link AsyncStackTraceCapture#FULL}.
+     */
+    public void setAsyncStackTraceCapture(AsyncStackTraceCapture asyncStackTraceCapture) {
+        this.asyncStackTraceCapture = asyncStackTraceCapture;
+    }
+
+    public boolean isSkipAsyncStackTraceDuringReplay() {
+        return skipAsyncStackTraceDuringReplay;
+    }
+
+    /**
+     * Do not record call sites of workflow tasks created while replaying
+     * already processed events. Asynchronous stack traces of failures of such
+     * tasks end at the closest task created after the replay.
+     */
+    public void setSkipAsyncStackTraceDuringReplay(boolean skipAsyncStackTraceDuringReplay) {
+        this.skipAsyncStackTraceDuringReplay = skipAsyncStackTraceDuringReplay;
+    }
+
+    public WorkerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Receives replay timings and number of replayed events.
+     * <code>null</code> (default) means no metrics.
+     */
+    public void setMetrics(WorkerMetrics metrics) {
+        this.metrics = metrics;
     }
 
     @Override
     public RespondDecisionTaskCompletedRequest handleDecisionTask(Iterator<DecisionTask> decisionTaskIterator) throws Exception {
+        if (metrics == null) {
+            return handleDecisionTask(new HistoryHelper(decisionTaskIterator));
+        }
+        long start = System.nanoTime();
+        long cpuStart = getCurrentThreadCpuTime();
         HistoryHelper historyHelper = new HistoryHelper(decisionTaskIterator);
-        AsyncDecider decider = createDecider(historyHelper);
-        decider.decide();
+        try {
+            return handleDecisionTask(historyHelper);
+        }
+        finally {
+            String type = WorkerMetrics.getType(historyHelper.getDecisionTask().getWorkflowType());
+            metrics.recordTime(WorkerMetrics.REPLAY_TIME, type, System.nanoTime() - start);
+            if (cpuStart >= 0) {
+                metrics.recordTime(WorkerMetrics.REPLAY_CPU_TIME, type, getCurrentThreadCpuTime() - cpuStart);
+            }
+            metrics.increment(WorkerMetrics.EVENTS_REPLAYED, type, historyHelper.getEvents().getEventsReturned());
+        }
+    }
+
+    /**
+     * @return -1 if not supported by JVM
+     */
+    private static long getCurrentThreadCpuTime() {
+        if (!threadMXBean.isCurrentThreadCpuTimeSupported()) {
+            return -1;
+        }
+        return threadMXBean.getCurrentThreadCpuTime();
+    }
+
+    private RespondDecisionTaskCompletedRequest handleDecisionTask(HistoryHelper historyHelper) throws Exception {
+        DecisionTask decisionTask = historyHelper.getDecisionTask();
+        AsyncDecider decider = null;
+        if (deciderCache != null) {
+            String runId = decisionTask.getWorkflowExecution().getRunId();
+            decider = deciderCache.take(runId, decisionTask.getPreviousStartedEventId());
+        }
+        if (decider != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("WorkflowTask received: taskId=" + decisionTask.getStartedEventId() + ", taskToken="
+                        + decisionTask.getTaskToken() + ", workflowExecution=" + decisionTask.getWorkflowExecution()
+                        + " continues cached decider");
+            }
+            if (!decider.decideNext(historyHelper)) {
+                if (log.isWarnEnabled()) {
+                    log.warn("History of workflowExecution=" + decisionTask.getWorkflowExecution()
+                            + " doesn't contain DecisionTaskStarted event with id="
+                            + decider.getDecisionTaskStartedEventId()
+                            + " where cached decider stopped. Falling back to full replay.");
+                }
+                decider.close();
+                decider = null;
+            }
+        }
+        if (decider == null) {
+            decider = createDecider(historyHelper, deciderCache != null);
+            decider.setAsyncStackTraceCapture(asyncStackTraceCapture, skipAsyncStackTraceDuringReplay);
+            decider.decide();
+        }
         DecisionsHelper decisionsHelper = decider.getDecisionsHelper();
         Collection<Decision> decisions = decisionsHelper.getDecisions();
         String context = decisionsHelper.getWorkflowContextDataToReturn();
-        DecisionTask decisionTask = historyHelper.getDecisionTask();
         if (log.isDebugEnabled()) {
             log.debug("WorkflowTask taskId=" + decisionTask.getStartedEventId() + ", taskToken=" + decisionTask.getTaskToken()
                     + " completed with " + decisions.size() + " new decisions");
@@ -64,6 +181,9 @@ public class AsyncDecisionTaskHandler extends DecisionTaskHandler {
         completedRequest.setTaskToken(decisionTask.getTaskToken());
         completedRequest.setDecisions(decisions);
         completedRequest.setExecutionContext(context);
+        if (decider.isRetained()) {
+            deciderCache.put(decisionTask.getWorkflowExecution().getRunId(), decider);
+        }
         return completedRequest;
     }
 
@@ -96,6 +216,10 @@ public class AsyncDecisionTaskHandler extends DecisionTaskHandler {
     }
 
     private AsyncDecider createDecider(HistoryHelper historyHelper) throws Exception {
+        return createDecider(historyHelper, false);
+    }
+
+    private AsyncDecider createDecider(HistoryHelper historyHelper, boolean cacheable) throws Exception {
         DecisionTask decisionTask = historyHelper.getDecisionTask();
         WorkflowType workflowType = decisionTask.getWorkflowType();
         if (log.isDebugEnabled()) {
@@ -111,8 +235,8 @@ public class AsyncDecisionTaskHandler extends DecisionTaskHandler {
                 throw new IllegalArgumentException("No implementation was found for " + decisionTask.getWorkflowType());
             }
         }
-        DecisionsHelper decisionsHelper = new DecisionsHelper(decisionTask);
-        AsyncDecider decider = new AsyncDecider(workflowDefinitionFactory, historyHelper, decisionsHelper);
+        DecisionsHelper decisionsHelper = new DecisionsHelper();
+        AsyncDecider decider = new AsyncDecider(workflowDefinitionFactory, historyHelper, decisionsHelper, cacheable);
         return decider;
     }
 }
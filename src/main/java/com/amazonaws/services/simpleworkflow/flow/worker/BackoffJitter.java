@@ -0,0 +1,42 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+/**
+ * Randomization applied to exponential backoff intervals. Randomized intervals
+ * prevent many clients that were throttled at the same time from retrying at
+ * the same time again.
+ * 
+ * @see BackoffThrottler
+ */
+public enum BackoffJitter {
+
+    /**
+     * Deterministic
+     * <code>min(pow(backoffCoefficient, failureCount - 1) * initialSleep, maxSleep)</code>
+     */
+    NONE,
+
+    /**
+     * Uniformly random value between 0 and the deterministic interval.
+     */
+    FULL,
+
+    /**
+     * Uniformly random value between initialSleep and the previous sleep
+     * multiplied by backoffCoefficient, limited by maxSleep.
+     */
+    DECORRELATED
+}
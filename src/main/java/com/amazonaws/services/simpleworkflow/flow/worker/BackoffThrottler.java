@@ -14,6 +14,7 @@
  */
 package com.amazonaws.services.simpleworkflow.flow.worker;
 
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -23,6 +24,8 @@ import java.util.concurrent.atomic.AtomicLong;
  * <pre>
  * min(pow(backoffCoefficient, failureCount - 1) * initialSleep, maxSleep);
  * </pre>
+ * 
+ * The interval can be randomized according to {@link BackoffJitter}.
  * <p>
  * Example usage:
  * 
@@ -51,8 +54,15 @@ public class BackoffThrottler {
 
     private final double backoffCoefficient;
 
+    private final BackoffJitter jitter;
+
     private final AtomicLong failureCount = new AtomicLong();
 
+    /**
+     * Used by {@link BackoffJitter#DECORRELATED}
+     */
+    private final AtomicLong previousSleep = new AtomicLong();
+
     /**
      * Construct an instance of the throttler.
      * 
@@ -64,12 +74,47 @@ public class BackoffThrottler {
      *            coefficient used to calculate the next time to sleep.
      */
     public BackoffThrottler(long initialSleep, long maxSleep, double backoffCoefficient) {
+        this(initialSleep, maxSleep, backoffCoefficient, BackoffJitter.NONE);
+    }
+
+    /**
+     * Construct an instance of the throttler.
+     * 
+     * @param initialSleep
+     *            time to sleep on the first failure
+     * @param maxSleep
+     *            maximum time to sleep independently of number of failures
+     * @param backoffCoefficient
+     *            coefficient used to calculate the next time to sleep.
+     * @param jitter
+     *            randomization of the calculated time to sleep
+     */
+    public BackoffThrottler(long initialSleep, long maxSleep, double backoffCoefficient, BackoffJitter jitter) {
+        if (jitter == null) {
+            throw new IllegalArgumentException("null jitter");
+        }
         this.initialSleep = initialSleep;
         this.maxSleep = maxSleep;
         this.backoffCoefficient = backoffCoefficient;
+        this.jitter = jitter;
     }
 
     private long calculateSleepTime() {
+        switch (jitter) {
+        case FULL:
+            return ThreadLocalRandom.current().nextLong(calculateExponentialSleepTime() + 1);
+        case DECORRELATED:
+            long previous = Math.max(previousSleep.get(), initialSleep);
+            long upper = Math.min((long) (previous * backoffCoefficient), maxSleep);
+            long sleep = upper > initialSleep ? initialSleep + ThreadLocalRandom.current().nextLong(upper - initialSleep + 1) : upper;
+            previousSleep.set(sleep);
+            return sleep;
+        default:
+            return calculateExponentialSleepTime();
+        }
+    }
+
+    private long calculateExponentialSleepTime() {
         double sleepMillis = (Math.pow(backoffCoefficient, failureCount.get() - 1)) * initialSleep;
         return Math.min((long) sleepMillis, maxSleep);
     }
@@ -90,6 +135,7 @@ public class BackoffThrottler {
      */
     public void success() {
         failureCount.set(0);
+        previousSleep.set(0);
     }
 
     /**
@@ -16,7 +16,6 @@ package com.amazonaws.services.simpleworkflow.flow.worker;
 
 import com.amazonaws.services.simpleworkflow.model.Decision;
 import com.amazonaws.services.simpleworkflow.model.DecisionType;
-import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
 import com.amazonaws.services.simpleworkflow.model.RequestCancelExternalWorkflowExecutionDecisionAttributes;
 import com.amazonaws.services.simpleworkflow.model.StartChildWorkflowExecutionDecisionAttributes;
 
@@ -63,7 +62,7 @@ class ChildWorkflowDecisionStateMachine extends DecisionStateMachineBase {
     }
 
     @Override
-    public void handleStartedEvent(HistoryEvent event) {
+    public void handleStartedEvent(CompactHistoryEvent event) {
         stateHistory.add("handleStartedEvent");
         switch (state) {
         case INITIATED:
@@ -77,7 +76,7 @@ class ChildWorkflowDecisionStateMachine extends DecisionStateMachineBase {
     }
 
     @Override
-    public void handleCancellationFailureEvent(HistoryEvent event) {
+    public void handleCancellationFailureEvent(CompactHistoryEvent event) {
         switch (state) {
         case CANCELLATION_DECISION_SENT:
             stateHistory.add("handleCancellationFailureEvent");
@@ -0,0 +1,561 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import java.util.Date;
+
+import com.amazonaws.services.simpleworkflow.model.ActivityTaskCancelRequestedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ActivityTaskCanceledEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ActivityTaskCompletedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ActivityTaskFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ActivityTaskScheduledEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ActivityTaskStartedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ActivityTaskTimedOutEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ActivityType;
+import com.amazonaws.services.simpleworkflow.model.CancelTimerFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.CancelWorkflowExecutionFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ChildWorkflowExecutionCanceledEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ChildWorkflowExecutionCompletedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ChildWorkflowExecutionFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ChildWorkflowExecutionStartedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ChildWorkflowExecutionTerminatedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ChildWorkflowExecutionTimedOutEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.CompleteWorkflowExecutionFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ContinueAsNewWorkflowExecutionFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.DecisionTaskCompletedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.DecisionTaskScheduledEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.DecisionTaskStartedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.DecisionTaskTimedOutEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.EventType;
+import com.amazonaws.services.simpleworkflow.model.ExternalWorkflowExecutionCancelRequestedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ExternalWorkflowExecutionSignaledEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.FailWorkflowExecutionFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
+import com.amazonaws.services.simpleworkflow.model.LambdaFunctionCompletedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.LambdaFunctionFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.LambdaFunctionScheduledEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.LambdaFunctionStartedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.LambdaFunctionTimedOutEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.MarkerRecordedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.RecordMarkerFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.RequestCancelActivityTaskFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.RequestCancelExternalWorkflowExecutionFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.RequestCancelExternalWorkflowExecutionInitiatedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ScheduleActivityTaskFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.ScheduleLambdaFunctionFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.SignalExternalWorkflowExecutionFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.SignalExternalWorkflowExecutionInitiatedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.StartChildWorkflowExecutionFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.StartChildWorkflowExecutionInitiatedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.StartLambdaFunctionFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.StartTimerFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.TaskList;
+import com.amazonaws.services.simpleworkflow.model.TimerCanceledEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.TimerFiredEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.TimerStartedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.WorkflowExecutionCancelRequestedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.WorkflowExecutionCanceledEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.WorkflowExecutionCompletedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.WorkflowExecutionContinuedAsNewEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.WorkflowExecutionFailedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.WorkflowExecutionSignaledEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.WorkflowExecutionStartedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.WorkflowExecutionTerminatedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.WorkflowExecutionTimedOutEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.WorkflowType;
+
+/**
+ * Immutable history event used by the replay. Created from a polled
+ * {@link HistoryEvent} by {@link #from(HistoryEvent)} that resolves the event
+ * type once and keeps only the attributes object of that type instead of a
+ * bean with a field for each of them. Frequently repeated strings like
+ * activity and workflow type names, versions and task lists are interned, so
+ * they are shared between events and histories.
+ * <p>
+ * Attributes getters mirror the ones of {@link HistoryEvent} and return
+ * <code>null</code> for attributes of other event types.
+ */
+final class CompactHistoryEvent {
+
+    private static final StringInterner strings = new StringInterner(StringInterner.DEFAULT_MAXIMUM_SIZE);
+
+    private final long eventId;
+
+    private final EventType eventType;
+
+    private final long eventTimestamp;
+
+    private final Object attributes;
+
+    private CompactHistoryEvent(long eventId, EventType eventType, long eventTimestamp, Object attributes) {
+        this.eventId = eventId;
+        this.eventType = eventType;
+        this.eventTimestamp = eventTimestamp;
+        this.attributes = attributes;
+    }
+
+    /**
+     * Attributes object of the polled event is reused, so the event must not
+     * be modified afterwards.
+     */
+    static CompactHistoryEvent from(HistoryEvent event) {
+        EventType eventType = EventType.fromValue(event.getEventType());
+        Object attributes = getAttributes(event, eventType);
+        intern(eventType, attributes);
+        Date timestamp = event.getEventTimestamp();
+        return new CompactHistoryEvent(event.getEventId(), eventType, timestamp == null ? 0 : timestamp.getTime(),
+                attributes);
+    }
+
+    private static Object getAttributes(HistoryEvent event, EventType eventType) {
+        switch (eventType) {
+        case WorkflowExecutionStarted:
+            return event.getWorkflowExecutionStartedEventAttributes();
+        case WorkflowExecutionCancelRequested:
+            return event.getWorkflowExecutionCancelRequestedEventAttributes();
+        case WorkflowExecutionCompleted:
+            return event.getWorkflowExecutionCompletedEventAttributes();
+        case CompleteWorkflowExecutionFailed:
+            return event.getCompleteWorkflowExecutionFailedEventAttributes();
+        case WorkflowExecutionFailed:
+            return event.getWorkflowExecutionFailedEventAttributes();
+        case FailWorkflowExecutionFailed:
+            return event.getFailWorkflowExecutionFailedEventAttributes();
+        case WorkflowExecutionTimedOut:
+            return event.getWorkflowExecutionTimedOutEventAttributes();
+        case WorkflowExecutionCanceled:
+            return event.getWorkflowExecutionCanceledEventAttributes();
+        case CancelWorkflowExecutionFailed:
+            return event.getCancelWorkflowExecutionFailedEventAttributes();
+        case WorkflowExecutionContinuedAsNew:
+            return event.getWorkflowExecutionContinuedAsNewEventAttributes();
+        case ContinueAsNewWorkflowExecutionFailed:
+            return event.getContinueAsNewWorkflowExecutionFailedEventAttributes();
+        case WorkflowExecutionTerminated:
+            return event.getWorkflowExecutionTerminatedEventAttributes();
+        case DecisionTaskScheduled:
+            return event.getDecisionTaskScheduledEventAttributes();
+        case DecisionTaskStarted:
+            return event.getDecisionTaskStartedEventAttributes();
+        case DecisionTaskCompleted:
+            return event.getDecisionTaskCompletedEventAttributes();
+        case DecisionTaskTimedOut:
+            return event.getDecisionTaskTimedOutEventAttributes();
+        case ActivityTaskScheduled:
+            return event.getActivityTaskScheduledEventAttributes();
+        case ScheduleActivityTaskFailed:
+            return event.getScheduleActivityTaskFailedEventAttributes();
+        case ActivityTaskStarted:
+            return event.getActivityTaskStartedEventAttributes();
+        case ActivityTaskCompleted:
+            return event.getActivityTaskCompletedEventAttributes();
+        case ActivityTaskFailed:
+            return event.getActivityTaskFailedEventAttributes();
+        case ActivityTaskTimedOut:
+            return event.getActivityTaskTimedOutEventAttributes();
+        case ActivityTaskCanceled:
+            return event.getActivityTaskCanceledEventAttributes();
+        case ActivityTaskCancelRequested:
+            return event.getActivityTaskCancelRequestedEventAttributes();
+        case RequestCancelActivityTaskFailed:
+            return event.getRequestCancelActivityTaskFailedEventAttributes();
+        case WorkflowExecutionSignaled:
+            return event.getWorkflowExecutionSignaledEventAttributes();
+        case MarkerRecorded:
+            return event.getMarkerRecordedEventAttributes();
+        case RecordMarkerFailed:
+            return event.getRecordMarkerFailedEventAttributes();
+        case TimerStarted:
+            return event.getTimerStartedEventAttributes();
+        case StartTimerFailed:
+            return event.getStartTimerFailedEventAttributes();
+        case TimerFired:
+            return event.getTimerFiredEventAttributes();
+        case TimerCanceled:
+            return event.getTimerCanceledEventAttributes();
+        case CancelTimerFailed:
+            return event.getCancelTimerFailedEventAttributes();
+        case StartChildWorkflowExecutionInitiated:
+            return event.getStartChildWorkflowExecutionInitiatedEventAttributes();
+        case StartChildWorkflowExecutionFailed:
+            return event.getStartChildWorkflowExecutionFailedEventAttributes();
+        case ChildWorkflowExecutionStarted:
+            return event.getChildWorkflowExecutionStartedEventAttributes();
+        case ChildWorkflowExecutionCompleted:
+            return event.getChildWorkflowExecutionCompletedEventAttributes();
+        case ChildWorkflowExecutionFailed:
+            return event.getChildWorkflowExecutionFailedEventAttributes();
+        case ChildWorkflowExecutionTimedOut:
+            return event.getChildWorkflowExecutionTimedOutEventAttributes();
+        case ChildWorkflowExecutionCanceled:
+            return event.getChildWorkflowExecutionCanceledEventAttributes();
+        case ChildWorkflowExecutionTerminated:
+            return event.getChildWorkflowExecutionTerminatedEventAttributes();
+        case SignalExternalWorkflowExecutionInitiated:
+            return event.getSignalExternalWorkflowExecutionInitiatedEventAttributes();
+        case SignalExternalWorkflowExecutionFailed:
+            return event.getSignalExternalWorkflowExecutionFailedEventAttributes();
+        case ExternalWorkflowExecutionSignaled:
+            return event.getExternalWorkflowExecutionSignaledEventAttributes();
+        case RequestCancelExternalWorkflowExecutionInitiated:
+            return event.getRequestCancelExternalWorkflowExecutionInitiatedEventAttributes();
+        case RequestCancelExternalWorkflowExecutionFailed:
+            return event.getRequestCancelExternalWorkflowExecutionFailedEventAttributes();
+        case ExternalWorkflowExecutionCancelRequested:
+            return event.getExternalWorkflowExecutionCancelRequestedEventAttributes();
+        case LambdaFunctionScheduled:
+            return event.getLambdaFunctionScheduledEventAttributes();
+        case LambdaFunctionStarted:
+            return event.getLambdaFunctionStartedEventAttributes();
+        case LambdaFunctionCompleted:
+            return event.getLambdaFunctionCompletedEventAttributes();
+        case LambdaFunctionFailed:
+            return event.getLambdaFunctionFailedEventAttributes();
+        case LambdaFunctionTimedOut:
+            return event.getLambdaFunctionTimedOutEventAttributes();
+        case ScheduleLambdaFunctionFailed:
+            return event.getScheduleLambdaFunctionFailedEventAttributes();
+        case StartLambdaFunctionFailed:
+            return event.getStartLambdaFunctionFailedEventAttributes();
+        default:
+            throw new IllegalArgumentException("Unknown event type: " + eventType);
+        }
+    }
+
+    private static void intern(EventType eventType, Object attributes) {
+        if (attributes == null) {
+            return;
+        }
+        switch (eventType) {
+        case WorkflowExecutionStarted: {
+            WorkflowExecutionStartedEventAttributes a = (WorkflowExecutionStartedEventAttributes) attributes;
+            intern(a.getWorkflowType());
+            intern(a.getTaskList());
+            break;
+        }
+        case DecisionTaskScheduled:
+            intern(((DecisionTaskScheduledEventAttributes) attributes).getTaskList());
+            break;
+        case DecisionTaskStarted: {
+            DecisionTaskStartedEventAttributes a = (DecisionTaskStartedEventAttributes) attributes;
+            a.setIdentity(strings.intern(a.getIdentity()));
+            break;
+        }
+        case ActivityTaskScheduled: {
+            ActivityTaskScheduledEventAttributes a = (ActivityTaskScheduledEventAttributes) attributes;
+            intern(a.getActivityType());
+            intern(a.getTaskList());
+            break;
+        }
+        case ActivityTaskStarted: {
+            ActivityTaskStartedEventAttributes a = (ActivityTaskStartedEventAttributes) attributes;
+            a.setIdentity(strings.intern(a.getIdentity()));
+            break;
+        }
+        case ScheduleActivityTaskFailed:
+            intern(((ScheduleActivityTaskFailedEventAttributes) attributes).getActivityType());
+            break;
+        case WorkflowExecutionSignaled: {
+            WorkflowExecutionSignaledEventAttributes a = (WorkflowExecutionSignaledEventAttributes) attributes;
+            a.setSignalName(strings.intern(a.getSignalName()));
+            break;
+        }
+        case MarkerRecorded: {
+            MarkerRecordedEventAttributes a = (MarkerRecordedEventAttributes) attributes;
+            a.setMarkerName(strings.intern(a.getMarkerName()));
+            break;
+        }
+        case StartChildWorkflowExecutionInitiated: {
+            StartChildWorkflowExecutionInitiatedEventAttributes a = (StartChildWorkflowExecutionInitiatedEventAttributes) attributes;
+            intern(a.getWorkflowType());
+            intern(a.getTaskList());
+            break;
+        }
+        case ChildWorkflowExecutionStarted:
+            intern(((ChildWorkflowExecutionStartedEventAttributes) attributes).getWorkflowType());
+            break;
+        case ChildWorkflowExecutionCompleted:
+            intern(((ChildWorkflowExecutionCompletedEventAttributes) attributes).getWorkflowType());
+            break;
+        case ChildWorkflowExecutionFailed:
+            intern(((ChildWorkflowExecutionFailedEventAttributes) attributes).getWorkflowType());
+            break;
+        case LambdaFunctionScheduled: {
+            LambdaFunctionScheduledEventAttributes a = (LambdaFunctionScheduledEventAttributes) attributes;
+            a.setName(strings.intern(a.getName()));
+            break;
+        }
+        default:
+            break;
+        }
+    }
+
+    private static void intern(ActivityType activityType) {
+        if (activityType != null) {
+            activityType.setName(strings.intern(activityType.getName()));
+            activityType.setVersion(strings.intern(activityType.getVersion()));
+        }
+    }
+
+    private static void intern(WorkflowType workflowType) {
+        if (workflowType != null) {
+            workflowType.setName(strings.intern(workflowType.getName()));
+            workflowType.setVersion(strings.intern(workflowType.getVersion()));
+        }
+    }
+
+    private static void intern(TaskList taskList) {
+        if (taskList != null) {
+            taskList.setName(strings.intern(taskList.getName()));
+        }
+    }
+
+    public long getEventId() {
+        return eventId;
+    }
+
+    public EventType getEventType() {
+        return eventType;
+    }
+
+    /**
+     * @return event timestamp in milliseconds since the epoch
+     */
+    public long getEventTimestamp() {
+        return eventTimestamp;
+    }
+
+    public WorkflowExecutionStartedEventAttributes getWorkflowExecutionStartedEventAttributes() {
+        return eventType == EventType.WorkflowExecutionStarted ? (WorkflowExecutionStartedEventAttributes) attributes : null;
+    }
+
+    public WorkflowExecutionCancelRequestedEventAttributes getWorkflowExecutionCancelRequestedEventAttributes() {
+        return eventType == EventType.WorkflowExecutionCancelRequested ? (WorkflowExecutionCancelRequestedEventAttributes) attributes : null;
+    }
+
+    public WorkflowExecutionCompletedEventAttributes getWorkflowExecutionCompletedEventAttributes() {
+        return eventType == EventType.WorkflowExecutionCompleted ? (WorkflowExecutionCompletedEventAttributes) attributes : null;
+    }
+
+    public CompleteWorkflowExecutionFailedEventAttributes getCompleteWorkflowExecutionFailedEventAttributes() {
+        return eventType == EventType.CompleteWorkflowExecutionFailed ? (CompleteWorkflowExecutionFailedEventAttributes) attributes : null;
+    }
+
+    public WorkflowExecutionFailedEventAttributes getWorkflowExecutionFailedEventAttributes() {
+        return eventType == EventType.WorkflowExecutionFailed ? (WorkflowExecutionFailedEventAttributes) attributes : null;
+    }
+
+    public FailWorkflowExecutionFailedEventAttributes getFailWorkflowExecutionFailedEventAttributes() {
+        return eventType == EventType.FailWorkflowExecutionFailed ? (FailWorkflowExecutionFailedEventAttributes) attributes : null;
+    }
+
+    public WorkflowExecutionTimedOutEventAttributes getWorkflowExecutionTimedOutEventAttributes() {
+        return eventType == EventType.WorkflowExecutionTimedOut ? (WorkflowExecutionTimedOutEventAttributes) attributes : null;
+    }
+
+    public WorkflowExecutionCanceledEventAttributes getWorkflowExecutionCanceledEventAttributes() {
+        return eventType == EventType.WorkflowExecutionCanceled ? (WorkflowExecutionCanceledEventAttributes) attributes : null;
+    }
+
+    public CancelWorkflowExecutionFailedEventAttributes getCancelWorkflowExecutionFailedEventAttributes() {
+        return eventType == EventType.CancelWorkflowExecutionFailed ? (CancelWorkflowExecutionFailedEventAttributes) attributes : null;
+    }
+
+    public WorkflowExecutionContinuedAsNewEventAttributes getWorkflowExecutionContinuedAsNewEventAttributes() {
+        return eventType == EventType.WorkflowExecutionContinuedAsNew ? (WorkflowExecutionContinuedAsNewEventAttributes) attributes : null;
+    }
+
+    public ContinueAsNewWorkflowExecutionFailedEventAttributes getContinueAsNewWorkflowExecutionFailedEventAttributes() {
+        return eventType == EventType.ContinueAsNewWorkflowExecutionFailed ? (ContinueAsNewWorkflowExecutionFailedEventAttributes) attributes : null;
+    }
+
+    public WorkflowExecutionTerminatedEventAttributes getWorkflowExecutionTerminatedEventAttributes() {
+        return eventType == EventType.WorkflowExecutionTerminated ? (WorkflowExecutionTerminatedEventAttributes) attributes : null;
+    }
+
+    public DecisionTaskScheduledEventAttributes getDecisionTaskScheduledEventAttributes() {
+        return eventType == EventType.DecisionTaskScheduled ? (DecisionTaskScheduledEventAttributes) attributes : null;
+    }
+
+    public DecisionTaskStartedEventAttributes getDecisionTaskStartedEventAttributes() {
+        return eventType == EventType.DecisionTaskStarted ? (DecisionTaskStartedEventAttributes) attributes : null;
+    }
+
+    public DecisionTaskCompletedEventAttributes getDecisionTaskCompletedEventAttributes() {
+        return eventType == EventType.DecisionTaskCompleted ? (DecisionTaskCompletedEventAttributes) attributes : null;
+    }
+
+    public DecisionTaskTimedOutEventAttributes getDecisionTaskTimedOutEventAttributes() {
+        return eventType == EventType.DecisionTaskTimedOut ? (DecisionTaskTimedOutEventAttributes) attributes : null;
+    }
+
+    public ActivityTaskScheduledEventAttributes getActivityTaskScheduledEventAttributes() {
+        return eventType == EventType.ActivityTaskScheduled ? (ActivityTaskScheduledEventAttributes) attributes : null;
+    }
+
+    public ScheduleActivityTaskFailedEventAttributes getScheduleActivityTaskFailedEventAttributes() {
+        return eventType == EventType.ScheduleActivityTaskFailed ? (ScheduleActivityTaskFailedEventAttributes) attributes : null;
+    }
+
+    public ActivityTaskStartedEventAttributes getActivityTaskStartedEventAttributes() {
+        return eventType == EventType.ActivityTaskStarted ? (ActivityTaskStartedEventAttributes) attributes : null;
+    }
+
+    public ActivityTaskCompletedEventAttributes getActivityTaskCompletedEventAttributes() {
+        return eventType == EventType.ActivityTaskCompleted ? (ActivityTaskCompletedEventAttributes) attributes : null;
+    }
+
+    public ActivityTaskFailedEventAttributes getActivityTaskFailedEventAttributes() {
+        return eventType == EventType.ActivityTaskFailed ? (ActivityTaskFailedEventAttributes) attributes : null;
+    }
+
+    public ActivityTaskTimedOutEventAttributes getActivityTaskTimedOutEventAttributes() {
+        return eventType == EventType.ActivityTaskTimedOut ? (ActivityTaskTimedOutEventAttributes) attributes : null;
+    }
+
+    public ActivityTaskCanceledEventAttributes getActivityTaskCanceledEventAttributes() {
+        return eventType == EventType.ActivityTaskCanceled ? (ActivityTaskCanceledEventAttributes) attributes : null;
+    }
+
+    public ActivityTaskCancelRequestedEventAttributes getActivityTaskCancelRequestedEventAttributes() {
+        return eventType == EventType.ActivityTaskCancelRequested ? (ActivityTaskCancelRequestedEventAttributes) attributes : null;
+    }
+
+    public RequestCancelActivityTaskFailedEventAttributes getRequestCancelActivityTaskFailedEventAttributes() {
+        return eventType == EventType.RequestCancelActivityTaskFailed ? (RequestCancelActivityTaskFailedEventAttributes) attributes : null;
+    }
+
+    public WorkflowExecutionSignaledEventAttributes getWorkflowExecutionSignaledEventAttributes() {
+        return eventType == EventType.WorkflowExecutionSignaled ? (WorkflowExecutionSignaledEventAttributes) attributes : null;
+    }
+
+    public MarkerRecordedEventAttributes getMarkerRecordedEventAttributes() {
+        return eventType == EventType.MarkerRecorded ? (MarkerRecordedEventAttributes) attributes : null;
+    }
+
+    public RecordMarkerFailedEventAttributes getRecordMarkerFailedEventAttributes() {
+        return eventType == EventType.RecordMarkerFailed ? (RecordMarkerFailedEventAttributes) attributes : null;
+    }
+
+    public TimerStartedEventAttributes getTimerStartedEventAttributes() {
+        return eventType == EventType.TimerStarted ? (TimerStartedEventAttributes) attributes : null;
+    }
+
+    public StartTimerFailedEventAttributes getStartTimerFailedEventAttributes() {
+        return eventType == EventType.StartTimerFailed ? (StartTimerFailedEventAttributes) attributes : null;
+    }
+
+    public TimerFiredEventAttributes getTimerFiredEventAttributes() {
+        return eventType == EventType.TimerFired ? (TimerFiredEventAttributes) attributes : null;
+    }
+
+    public TimerCanceledEventAttributes getTimerCanceledEventAttributes() {
+        return eventType == EventType.TimerCanceled ? (TimerCanceledEventAttributes) attributes : null;
+    }
+
+    public CancelTimerFailedEventAttributes getCancelTimerFailedEventAttributes() {
+        return eventType == EventType.CancelTimerFailed ? (CancelTimerFailedEventAttributes) attributes : null;
+    }
+
+    public StartChildWorkflowExecutionInitiatedEventAttributes getStartChildWorkflowExecutionInitiatedEventAttributes() {
+        return eventType == EventType.StartChildWorkflowExecutionInitiated ? (StartChildWorkflowExecutionInitiatedEventAttributes) attributes : null;
+    }
+
+    public StartChildWorkflowExecutionFailedEventAttributes getStartChildWorkflowExecutionFailedEventAttributes() {
+        return eventType == EventType.StartChildWorkflowExecutionFailed ? (StartChildWorkflowExecutionFailedEventAttributes) attributes : null;
+    }
+
+    public ChildWorkflowExecutionStartedEventAttributes getChildWorkflowExecutionStartedEventAttributes() {
+        return eventType == EventType.ChildWorkflowExecutionStarted ? (ChildWorkflowExecutionStartedEventAttributes) attributes : null;
+    }
+
+    public ChildWorkflowExecutionCompletedEventAttributes getChildWorkflowExecutionCompletedEventAttributes() {
+        return eventType == EventType.ChildWorkflowExecutionCompleted ? (ChildWorkflowExecutionCompletedEventAttributes) attributes : null;
+    }
+
+    public ChildWorkflowExecutionFailedEventAttributes getChildWorkflowExecutionFailedEventAttributes() {
+        return eventType == EventType.ChildWorkflowExecutionFailed ? (ChildWorkflowExecutionFailedEventAttributes) attributes : null;
+    }
+
+    public ChildWorkflowExecutionTimedOutEventAttributes getChildWorkflowExecutionTimedOutEventAttributes() {
+        return eventType == EventType.ChildWorkflowExecutionTimedOut ? (ChildWorkflowExecutionTimedOutEventAttributes) attributes : null;
+    }
+
+    public ChildWorkflowExecutionCanceledEventAttributes getChildWorkflowExecutionCanceledEventAttributes() {
+        return eventType == EventType.ChildWorkflowExecutionCanceled ? (ChildWorkflowExecutionCanceledEventAttributes) attributes : null;
+    }
+
+    public ChildWorkflowExecutionTerminatedEventAttributes getChildWorkflowExecutionTerminatedEventAttributes() {
+        return eventType == EventType.ChildWorkflowExecutionTerminated ? (ChildWorkflowExecutionTerminatedEventAttributes) attributes : null;
+    }
+
+    public SignalExternalWorkflowExecutionInitiatedEventAttributes getSignalExternalWorkflowExecutionInitiatedEventAttributes() {
+        return eventType == EventType.SignalExternalWorkflowExecutionInitiated ? (SignalExternalWorkflowExecutionInitiatedEventAttributes) attributes : null;
+    }
+
+    public SignalExternalWorkflowExecutionFailedEventAttributes getSignalExternalWorkflowExecutionFailedEventAttributes() {
+        return eventType == EventType.SignalExternalWorkflowExecutionFailed ? (SignalExternalWorkflowExecutionFailedEventAttributes) attributes : null;
+    }
+
+    public ExternalWorkflowExecutionSignaledEventAttributes getExternalWorkflowExecutionSignaledEventAttributes() {
+        return eventType == EventType.ExternalWorkflowExecutionSignaled ? (ExternalWorkflowExecutionSignaledEventAttributes) attributes : null;
+    }
+
+    public RequestCancelExternalWorkflowExecutionInitiatedEventAttributes getRequestCancelExternalWorkflowExecutionInitiatedEventAttributes() {
+        return eventType == EventType.RequestCancelExternalWorkflowExecutionInitiated ? (RequestCancelExternalWorkflowExecutionInitiatedEventAttributes) attributes : null;
+    }
+
+    public RequestCancelExternalWorkflowExecutionFailedEventAttributes getRequestCancelExternalWorkflowExecutionFailedEventAttributes() {
+        return eventType == EventType.RequestCancelExternalWorkflowExecutionFailed ? (RequestCancelExternalWorkflowExecutionFailedEventAttributes) attributes : null;
+    }
+
+    public ExternalWorkflowExecutionCancelRequestedEventAttributes getExternalWorkflowExecutionCancelRequestedEventAttributes() {
+        return eventType == EventType.ExternalWorkflowExecutionCancelRequested ? (ExternalWorkflowExecutionCancelRequestedEventAttributes) attributes : null;
+    }
+
+    public LambdaFunctionScheduledEventAttributes getLambdaFunctionScheduledEventAttributes() {
+        return eventType == EventType.LambdaFunctionScheduled ? (LambdaFunctionScheduledEventAttributes) attributes : null;
+    }
+
+    public LambdaFunctionStartedEventAttributes getLambdaFunctionStartedEventAttributes() {
+        return eventType == EventType.LambdaFunctionStarted ? (LambdaFunctionStartedEventAttributes) attributes : null;
+    }
+
+    public LambdaFunctionCompletedEventAttributes getLambdaFunctionCompletedEventAttributes() {
+        return eventType == EventType.LambdaFunctionCompleted ? (LambdaFunctionCompletedEventAttributes) attributes : null;
+    }
+
+    public LambdaFunctionFailedEventAttributes getLambdaFunctionFailedEventAttributes() {
+        return eventType == EventType.LambdaFunctionFailed ? (LambdaFunctionFailedEventAttributes) attributes : null;
+    }
+
+    public LambdaFunctionTimedOutEventAttributes getLambdaFunctionTimedOutEventAttributes() {
+        return eventType == EventType.LambdaFunctionTimedOut ? (LambdaFunctionTimedOutEventAttributes) attributes : null;
+    }
+
+    public ScheduleLambdaFunctionFailedEventAttributes getScheduleLambdaFunctionFailedEventAttributes() {
+        return eventType == EventType.ScheduleLambdaFunctionFailed ? (ScheduleLambdaFunctionFailedEventAttributes) attributes : null;
+    }
+
+    public StartLambdaFunctionFailedEventAttributes getStartLambdaFunctionFailedEventAttributes() {
+        return eventType == EventType.StartLambdaFunctionFailed ? (StartLambdaFunctionFailedEventAttributes) attributes : null;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactHistoryEvent[eventId=" + eventId + ", eventType=" + eventType + ", eventTimestamp="
+                + new Date(eventTimestamp) + ", attributes=" + attributes + "]";
+    }
+}
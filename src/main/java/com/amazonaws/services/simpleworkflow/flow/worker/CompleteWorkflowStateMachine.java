@@ -15,7 +15,6 @@
 package com.amazonaws.services.simpleworkflow.flow.worker;
 
 import com.amazonaws.services.simpleworkflow.model.Decision;
-import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
 
 
 public class CompleteWorkflowStateMachine implements DecisionStateMachine {
@@ -41,7 +40,7 @@ public class CompleteWorkflowStateMachine implements DecisionStateMachine {
     }
 
     @Override
-    public void handleInitiationFailedEvent(HistoryEvent event) {
+    public void handleInitiationFailedEvent(CompactHistoryEvent event) {
         decision = null;
     }
 
@@ -51,7 +50,7 @@ public class CompleteWorkflowStateMachine implements DecisionStateMachine {
     }
 
     @Override
-    public void handleStartedEvent(HistoryEvent event) {
+    public void handleStartedEvent(CompactHistoryEvent event) {
         throw new UnsupportedOperationException();
     }
 
@@ -61,7 +60,7 @@ public class CompleteWorkflowStateMachine implements DecisionStateMachine {
     }
 
     @Override
-    public void handleCancellationFailureEvent(HistoryEvent event) {
+    public void handleCancellationFailureEvent(CompactHistoryEvent event) {
         throw new UnsupportedOperationException();
     }
 
@@ -71,7 +70,7 @@ public class CompleteWorkflowStateMachine implements DecisionStateMachine {
     }
 
     @Override
-    public void handleInitiatedEvent(HistoryEvent event) {
+    public void handleInitiatedEvent(CompactHistoryEvent event) {
         throw new UnsupportedOperationException();
     }
 
@@ -90,6 +89,16 @@ public class CompleteWorkflowStateMachine implements DecisionStateMachine {
         return decision != null;
     }
 
+    @Override
+    public boolean isTerminal() {
+        return false;
+    }
+
+    @Override
+    public long getInitiatedEventId() {
+        return -1;
+    }
+
     @Override
     public void handleDecisionTaskStartedEvent() {
         
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.services.simpleworkflow.AmazonSimpleWorkflow;
+
+/**
+ * Hands polled decision tasks to a separate executor so poll threads return to
+ * long polling while the previous tasks are replayed. Number of tasks that are
+ * polled but not processed yet is limited by the maximum pool size of the
+ * executor.
+ */
+public class ConcurrentDecisionTaskPoller extends DecisionTaskPoller {
+
+    private static final Log log = LogFactory.getLog(ConcurrentDecisionTaskPoller.class);
+
+    private ThreadPoolExecutor taskExecutorService;
+
+    protected Semaphore pollSemaphore;
+
+    private UncaughtExceptionHandler uncaughtExceptionHandler = new UncaughtExceptionHandler() {
+
+        @Override
+        public void uncaughtException(Thread t, Throwable e) {
+            log.error("Failure in thread " + t.getName(), e);
+        }
+    };
+
+    public ConcurrentDecisionTaskPoller(AmazonSimpleWorkflow service, String domain, String taskListToPoll,
+            DecisionTaskHandler decisionTaskHandler, ThreadPoolExecutor taskExecutorService) {
+        super(service, domain, taskListToPoll, decisionTaskHandler);
+        setTaskExecutorService(taskExecutorService);
+    }
+
+    public ExecutorService getTaskExecutorService() {
+        return taskExecutorService;
+    }
+
+    public void setTaskExecutorService(ThreadPoolExecutor taskExecutorService) {
+        this.taskExecutorService = taskExecutorService;
+        pollSemaphore = new Semaphore(taskExecutorService.getMaximumPoolSize());
+    }
+
+    public UncaughtExceptionHandler getUncaughtExceptionHandler() {
+        return uncaughtExceptionHandler;
+    }
+
+    /**
+     * Receives failures of decision tasks processed by the task executor.
+     * Default logs them.
+     */
+    public void setUncaughtExceptionHandler(UncaughtExceptionHandler uncaughtExceptionHandler) {
+        this.uncaughtExceptionHandler = uncaughtExceptionHandler;
+    }
+
+    /**
+     * Poll for a decision task and process it using provided executor service.
+     * 
+     * @return true if task was polled, false if poll timed out
+     * @throws Exception
+     */
+    @Override
+    public boolean pollAndProcessSingleTask() throws Exception {
+        boolean semaphoreNeedsRelease = false;
+        DecisionTaskIterator polled = null;
+        try {
+            // Without semaphore task that was polled from a service
+            // can end up waiting on taskExecutor.execute(...) for a long
+            // time leading to decision task timeouts
+            pollSemaphore.acquire();
+            // we will release the semaphore in a finally clause
+            semaphoreNeedsRelease = true;
+            polled = pollForDecisionTask();
+            if (polled == null) {
+                return false;
+            }
+            final DecisionTaskIterator tasks = polled;
+            taskExecutorService.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        processDecisionTask(tasks);
+                    }
+                    catch (Throwable e) {
+                        uncaughtExceptionHandler.uncaughtException(Thread.currentThread(), e);
+                    }
+                    finally {
+                        pollSemaphore.release();
+                    }
+                }
+            });
+            semaphoreNeedsRelease = false;
+        }
+        finally {
+            if (semaphoreNeedsRelease) {
+                pollSemaphore.release();
+                if (polled != null) {
+                    polled.close();
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        taskExecutorService.shutdown();
+    }
+
+    @Override
+    public void shutdownNow() {
+        super.shutdownNow();
+        taskExecutorService.shutdownNow();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long start = System.nanoTime();
+        boolean terminated = taskExecutorService.awaitTermination(timeout, unit);
+        long left = unit.toNanos(timeout) - (System.nanoTime() - start);
+        super.awaitTermination(Math.max(0, left), TimeUnit.NANOSECONDS);
+        return terminated;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Keeps deciders of open workflow executions in memory between decision tasks
+ * to avoid replaying the whole history on every decision. Keyed by runId.
+ * Least recently used deciders are released when the cache is full.
+ * <p>
+ * A decider is removed from the cache for the duration of a decision, so it is
+ * never used by more then one thread at a time.
+ */
+class DeciderCache {
+
+    private static final Log log = LogFactory.getLog(DeciderCache.class);
+
+    private final int maximumSize;
+
+    /**
+     * Use access-order to evict least recently used deciders
+     */
+    private final Map<String, AsyncDecider> deciders;
+
+    DeciderCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("0 or negative maximumSize");
+        }
+        this.maximumSize = maximumSize;
+        deciders = new LinkedHashMap<String, AsyncDecider>(16, 0.75f, true);
+    }
+
+    /**
+     * Removes decider of the given run from the cache.
+     *
+     * @param previousStartedEventId
+     *            previousStartedEventId of the decision task to be handled.
+     * @return cached decider that can continue from the given event or
+     *         <code>null</code> if full replay is required
+     */
+    AsyncDecider take(String runId, Long previousStartedEventId) {
+        AsyncDecider result;
+        synchronized (deciders) {
+            result = deciders.remove(runId);
+        }
+        if (result == null) {
+            return null;
+        }
+        if (previousStartedEventId == null || previousStartedEventId != result.getDecisionTaskStartedEventId()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Cached decider of runId=" + runId + " stopped at decisionTaskStartedEventId="
+                        + result.getDecisionTaskStartedEventId() + ", but decision task previousStartedEventId="
+                        + previousStartedEventId + ". Falling back to full replay.");
+            }
+            result.close();
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * Adds retained decider to the cache evicting the least recently used ones
+     * if necessary.
+     */
+    void put(String runId, AsyncDecider decider) {
+        List<AsyncDecider> evicted = null;
+        AsyncDecider replaced;
+        synchronized (deciders) {
+            replaced = deciders.put(runId, decider);
+            int toEvict = deciders.size() - maximumSize;
+            if (toEvict > 0) {
+                evicted = new ArrayList<AsyncDecider>(toEvict);
+                Iterator<AsyncDecider> iterator = deciders.values().iterator();
+                while (toEvict-- > 0) {
+                    evicted.add(iterator.next());
+                    iterator.remove();
+                }
+            }
+        }
+        // Deciders are released outside of the lock as it calls workflow code
+        if (replaced != null && replaced != decider) {
+            replaced.close();
+        }
+        if (evicted != null) {
+            for (AsyncDecider d : evicted) {
+                d.close();
+            }
+        }
+    }
+
+    int size() {
+        synchronized (deciders) {
+            return deciders.size();
+        }
+    }
+}
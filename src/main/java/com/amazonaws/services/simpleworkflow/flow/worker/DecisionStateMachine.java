@@ -15,7 +15,6 @@
 package com.amazonaws.services.simpleworkflow.flow.worker;
 
 import com.amazonaws.services.simpleworkflow.model.Decision;
-import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
 
 
 interface DecisionStateMachine {
@@ -24,25 +23,37 @@ interface DecisionStateMachine {
 
     void cancel(Runnable immediateCancellationCallback);
 
-    void handleStartedEvent(HistoryEvent event);
+    void handleStartedEvent(CompactHistoryEvent event);
 
     void handleCancellationInitiatedEvent();
 
     void handleCancellationEvent();
 
-    void handleCancellationFailureEvent(HistoryEvent event);
+    void handleCancellationFailureEvent(CompactHistoryEvent event);
 
     void handleCompletionEvent();
 
-    void handleInitiationFailedEvent(HistoryEvent event);
+    void handleInitiationFailedEvent(CompactHistoryEvent event);
 
-    void handleInitiatedEvent(HistoryEvent event);
+    void handleInitiatedEvent(CompactHistoryEvent event);
 
     void handleDecisionTaskStartedEvent();
 
     DecisionState getState();
 
     boolean isDone();
+
+    /**
+     * @return true if neither new decisions nor history events are expected by
+     *         this state machine, so it can be released
+     */
+    boolean isTerminal();
+
+    /**
+     * @return id of the event passed to {@link #handleInitiatedEvent(CompactHistoryEvent)}
+     *         or -1 if it wasn't called
+     */
+    long getInitiatedEventId();
     
     DecisionId getId();
 
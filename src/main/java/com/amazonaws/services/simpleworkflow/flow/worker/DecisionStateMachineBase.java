@@ -17,7 +17,6 @@ package com.amazonaws.services.simpleworkflow.flow.worker;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
 
 abstract class DecisionStateMachineBase implements DecisionStateMachine {
 
@@ -25,6 +24,8 @@ abstract class DecisionStateMachineBase implements DecisionStateMachine {
 
     protected List<String> stateHistory = new ArrayList<String>();
 
+    protected long initiatedEventId = -1;
+
     private final DecisionId id;
 
     public DecisionStateMachineBase(DecisionId id) {
@@ -55,6 +56,16 @@ abstract class DecisionStateMachineBase implements DecisionStateMachine {
         return state == DecisionState.COMPLETED || state == DecisionState.COMPLETED_AFTER_CANCELLATION_DECISION_SENT;
     }
 
+    @Override
+    public boolean isTerminal() {
+        return state == DecisionState.COMPLETED;
+    }
+
+    @Override
+    public long getInitiatedEventId() {
+        return initiatedEventId;
+    }
+
     @Override
     public void handleDecisionTaskStartedEvent() {
         switch (state) {
@@ -89,8 +100,9 @@ abstract class DecisionStateMachineBase implements DecisionStateMachine {
     }
 
     @Override
-    public void handleInitiatedEvent(HistoryEvent event) {
+    public void handleInitiatedEvent(CompactHistoryEvent event) {
         stateHistory.add("handleInitiatedEvent");
+        initiatedEventId = event.getEventId();
         switch (state) {
         case DECISION_SENT:
             state = DecisionState.INITIATED;
@@ -106,7 +118,7 @@ abstract class DecisionStateMachineBase implements DecisionStateMachine {
     }
 
     @Override
-    public void handleInitiationFailedEvent(HistoryEvent event) {
+    public void handleInitiationFailedEvent(CompactHistoryEvent event) {
         stateHistory.add("handleInitiationFailedEvent");
         switch (state) {
         case INITIATED:
@@ -122,7 +134,7 @@ abstract class DecisionStateMachineBase implements DecisionStateMachine {
     }
 
     @Override
-    public void handleStartedEvent(HistoryEvent event) {
+    public void handleStartedEvent(CompactHistoryEvent event) {
         stateHistory.add("handleStartedEvent");
     }
 
@@ -158,7 +170,7 @@ abstract class DecisionStateMachineBase implements DecisionStateMachine {
     }
 
     @Override
-    public void handleCancellationFailureEvent(HistoryEvent event) {
+    public void handleCancellationFailureEvent(CompactHistoryEvent event) {
         stateHistory.add("handleCancellationFailureEvent");
         switch (state) {
         case COMPLETED_AFTER_CANCELLATION_DECISION_SENT:
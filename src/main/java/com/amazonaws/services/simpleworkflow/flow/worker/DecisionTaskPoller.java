@@ -16,6 +16,8 @@ package com.amazonaws.services.simpleworkflow.flow.worker;
 
 import java.lang.management.ManagementFactory;
 import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
@@ -34,12 +36,18 @@ public class DecisionTaskPoller implements TaskPoller {
 
     private static final Log decisionsLog = LogFactory.getLog(DecisionTaskPoller.class.getName() + ".decisions");
 
-    private class DecisionTaskIterator implements Iterator<DecisionTask> {
+    /**
+     * Pages of a single decision task history. Pages after the first one are
+     * polled lazily.
+     */
+    protected class DecisionTaskIterator implements Iterator<DecisionTask> {
 
         private final DecisionTask firstDecisionTask;
 
         private DecisionTask next;
 
+        private long charged;
+
         public DecisionTaskIterator() {
             next = firstDecisionTask = poll(null);
         }
@@ -77,6 +85,159 @@ public class DecisionTaskPoller implements TaskPoller {
             return firstDecisionTask;
         }
 
+        /**
+         * Called when the decision task processing is done.
+         */
+        public void close() {
+            if (charged > 0) {
+                memoryBudget.release(charged);
+                charged = 0;
+            }
+        }
+
+        /**
+         * Replaces amount acquired before the poll with the estimated size of
+         * the task.
+         */
+        void charge(long acquired) {
+            charged = DecisionTaskSizeEstimator.estimateRetainedSize(firstDecisionTask, prefetchDepth);
+            memoryBudget.charge(charged - acquired);
+        }
+
+    }
+
+    /**
+     * Fetches history pages on {@link #prefetchExecutor} ahead of the replay.
+     * Up to {@link #prefetchDepth} fetched pages are buffered. The next page
+     * token is known only after the previous page is received, so pages are
+     * fetched sequentially by a single background task that stops when the
+     * buffer is full and is resubmitted when the replay consumes a page.
+     */
+    private class PrefetchingDecisionTaskIterator extends DecisionTaskIterator implements Runnable {
+
+        private final LinkedList<Object> fetched = new LinkedList<Object>();
+
+        private DecisionTask current;
+
+        private String nextPageToken;
+
+        private boolean fetching;
+
+        private boolean closed;
+
+        public PrefetchingDecisionTaskIterator() {
+            super();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (current == null) {
+                return getFirstDecisionTask() != null;
+            }
+            return current.getNextPageToken() != null;
+        }
+
+        @Override
+        public DecisionTask next() {
+            if (!hasNext()) {
+                throw new IllegalStateException("hasNext() == false");
+            }
+            if (current == null) {
+                current = getFirstDecisionTask();
+                if (current.getNextPageToken() != null) {
+                    synchronized (this) {
+                        nextPageToken = current.getNextPageToken();
+                        fetching = true;
+                    }
+                    prefetchExecutor.execute(this);
+                }
+                return current;
+            }
+            Object page;
+            boolean resume = false;
+            synchronized (this) {
+                try {
+                    while (fetched.isEmpty()) {
+                        wait();
+                    }
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+                page = fetched.removeFirst();
+                if (!fetching && nextPageToken != null && !closed) {
+                    fetching = true;
+                    resume = true;
+                }
+            }
+            if (resume) {
+                prefetchExecutor.execute(this);
+            }
+            if (page instanceof RuntimeException) {
+                throw (RuntimeException) page;
+            }
+            if (page instanceof Error) {
+                throw (Error) page;
+            }
+            current = (DecisionTask) page;
+            // Just to not keep around the history page
+            getFirstDecisionTask().setEvents(null);
+            return current;
+        }
+
+        /**
+         * Fetches pages until the buffer is full, the history end is reached or
+         * the iterator is closed.
+         */
+        @Override
+        public void run() {
+            while (true) {
+                String token;
+                synchronized (this) {
+                    if (closed || fetched.size() >= prefetchDepth) {
+                        fetching = false;
+                        return;
+                    }
+                    token = nextPageToken;
+                }
+                Object page;
+                String pageToken = null;
+                try {
+                    DecisionTask task = poll(token);
+                    if (task == null) {
+                        page = new IllegalStateException("History page is not returned for nextPageToken=" + token);
+                    }
+                    else {
+                        page = task;
+                        pageToken = task.getNextPageToken();
+                    }
+                }
+                catch (Throwable e) {
+                    page = e instanceof RuntimeException || e instanceof Error ? e : new RuntimeException(e);
+                }
+                synchronized (this) {
+                    if (!closed) {
+                        fetched.addLast(page);
+                    }
+                    nextPageToken = pageToken;
+                    notifyAll();
+                    if (pageToken == null) {
+                        fetching = false;
+                        return;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                closed = true;
+                fetched.clear();
+            }
+            super.close();
+        }
     }
 
     private AmazonSimpleWorkflow service;
@@ -91,6 +252,14 @@ public class DecisionTaskPoller implements TaskPoller {
 
     private DecisionTaskHandler decisionTaskHandler;
 
+    private MemoryBudget memoryBudget;
+
+    private ExecutorService prefetchExecutor;
+
+    private int prefetchDepth;
+
+    private WorkerMetrics metrics;
+
     public DecisionTaskPoller() {
         identity = ManagementFactory.getRuntimeMXBean().getName();
     }
@@ -147,6 +316,62 @@ public class DecisionTaskPoller implements TaskPoller {
         this.taskListToPoll = pollTaskList;
     }
 
+    public MemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Budget charged with estimated heap size of each decision task for the
+     * duration of its processing. Polling is paused until a full history page
+     * fits into the budget. <code>null</code> (default) means no limit.
+     */
+    public void setMemoryBudget(MemoryBudget memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    public ExecutorService getPrefetchExecutor() {
+        return prefetchExecutor;
+    }
+
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    /**
+     * Enables fetching of the next history pages in background while the
+     * current one is replayed. The executor is shut down together with the
+     * poller.
+     * 
+     * @param prefetchExecutor
+     *            executor used to fetch pages. Each paginated decision task
+     *            uses at most one its thread at a time.
+     * @param prefetchDepth
+     *            maximum number of pages fetched ahead of the replay. 0
+     *            disables prefetching.
+     */
+    public void setPrefetch(ExecutorService prefetchExecutor, int prefetchDepth) {
+        if (prefetchDepth < 0) {
+            throw new IllegalArgumentException("negative prefetchDepth");
+        }
+        if (prefetchDepth > 0 && prefetchExecutor == null) {
+            throw new IllegalArgumentException("null prefetchExecutor");
+        }
+        this.prefetchExecutor = prefetchExecutor;
+        this.prefetchDepth = prefetchDepth;
+    }
+
+    public WorkerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Receives poll, history page and respond timings. <code>null</code>
+     * (default) means no metrics.
+     */
+    public void setMetrics(WorkerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Poll for a task using {@link #getPollTimeoutInSeconds()}
      * 
@@ -168,7 +393,11 @@ public class DecisionTaskPoller implements TaskPoller {
         if (log.isDebugEnabled()) {
             log.debug("poll request begin: " + pollRequest);
         }
+        long start = metrics == null ? 0 : System.nanoTime();
         DecisionTask result = service.pollForDecisionTask(pollRequest);
+        if (metrics != null) {
+            recordPoll(nextResultToken == null, result, System.nanoTime() - start);
+        }
         if (log.isDebugEnabled()) {
             log.debug("poll request returned decision task: workflowType=" + result.getWorkflowType() + ", workflowExecution="
                     + result.getWorkflowExecution() + ", startedEventId=" + result.getStartedEventId() + ", previousStartedEventId=" + result.getPreviousStartedEventId());
@@ -180,6 +409,16 @@ public class DecisionTaskPoller implements TaskPoller {
         return result;
     }
 
+    private void recordPoll(boolean firstPage, DecisionTask result, long nanoseconds) {
+        boolean received = result != null && result.getTaskToken() != null;
+        String type = received ? WorkerMetrics.getType(result.getWorkflowType()) : null;
+        metrics.recordTime(firstPage ? WorkerMetrics.DECISION_TASK_POLL_TIME : WorkerMetrics.HISTORY_PAGE_POLL_TIME, type,
+                nanoseconds);
+        if (received) {
+            metrics.increment(WorkerMetrics.HISTORY_PAGES, type, 1);
+        }
+    }
+
     /**
      * Poll for a workflow task and call appropriate decider. This method might
      * call the service multiple times to retrieve the whole history it it is
@@ -191,40 +430,90 @@ public class DecisionTaskPoller implements TaskPoller {
      */
     @Override
     public boolean pollAndProcessSingleTask() throws Exception {
+        DecisionTaskIterator tasks = pollForDecisionTask();
+        if (tasks == null) {
+            return false;
+        }
+        processDecisionTask(tasks);
+        return true;
+    }
+
+    /**
+     * Poll for the first page of a decision task history. If
+     * {@link #getMemoryBudget()} is configured a full page size is acquired
+     * from it before the poll and is replaced with the estimated task size
+     * after the poll.
+     * 
+     * @return null if poll timed out
+     */
+    protected DecisionTaskIterator pollForDecisionTask() throws InterruptedException {
+        if (memoryBudget == null) {
+            DecisionTaskIterator tasks = prefetchDepth > 0 ? new PrefetchingDecisionTaskIterator() : new DecisionTaskIterator();
+            return tasks.hasNext() ? tasks : null;
+        }
+        long acquired = DecisionTaskSizeEstimator.RESERVATION_BYTES;
+        memoryBudget.acquire(acquired);
         DecisionTaskIterator tasks = null;
-        RespondDecisionTaskCompletedRequest taskCompletedRequest = null;
         try {
-            tasks = new DecisionTaskIterator();
+            tasks = prefetchDepth > 0 ? new PrefetchingDecisionTaskIterator() : new DecisionTaskIterator();
             if (!tasks.hasNext()) {
-                return false;
+                tasks = null;
+                return null;
+            }
+            tasks.charge(acquired);
+            return tasks;
+        }
+        finally {
+            if (tasks == null) {
+                memoryBudget.release(acquired);
             }
+        }
+    }
+
+    /**
+     * Call decider for the polled task and report its decisions to the
+     * service. Remaining pages of the history are retrieved by the calling
+     * thread.
+     */
+    protected void processDecisionTask(DecisionTaskIterator tasks) throws Exception {
+        RespondDecisionTaskCompletedRequest taskCompletedRequest = null;
+        try {
             taskCompletedRequest = decisionTaskHandler.handleDecisionTask(tasks);
             if (decisionsLog.isTraceEnabled()) {
                 decisionsLog.trace(WorkflowExecutionUtils.prettyPrintDecisions(taskCompletedRequest.getDecisions()));
             }
-            service.respondDecisionTaskCompleted(taskCompletedRequest);
+            if (metrics == null) {
+                service.respondDecisionTaskCompleted(taskCompletedRequest);
+            }
+            else {
+                long start = System.nanoTime();
+                service.respondDecisionTaskCompleted(taskCompletedRequest);
+                String type = WorkerMetrics.getType(tasks.getFirstDecisionTask().getWorkflowType());
+                metrics.recordTime(WorkerMetrics.DECISION_TASK_RESPOND_TIME, type, System.nanoTime() - start);
+                metrics.increment(WorkerMetrics.DECISIONS, type, taskCompletedRequest.getDecisions().size());
+            }
         }
         catch (Exception e) {
-            if (tasks != null) {
-                DecisionTask firstTask = tasks.getFirstDecisionTask();
-                if (firstTask != null) {
-                    if (log.isWarnEnabled()) {
-                        log.warn("DecisionTask failure: taskId= " + firstTask.getStartedEventId() + ", workflowExecution="
-                                + firstTask.getWorkflowExecution(), e);
-                    }
-                    if (log.isDebugEnabled() && firstTask.getEvents() != null) {
-                        log.debug("Failed taskId=" + firstTask.getStartedEventId() + " history: "
-                                + WorkflowExecutionUtils.prettyPrintHistory(firstTask.getEvents(), true));
-                    }
+            DecisionTask firstTask = tasks.getFirstDecisionTask();
+            if (firstTask != null) {
+                if (log.isWarnEnabled()) {
+                    log.warn("DecisionTask failure: taskId= " + firstTask.getStartedEventId() + ", workflowExecution="
+                            + firstTask.getWorkflowExecution(), e);
                 }
-                if (taskCompletedRequest != null && decisionsLog.isWarnEnabled()) {
-                    decisionsLog.warn("Failed taskId=" + firstTask.getStartedEventId() + " decisions="
-                            + WorkflowExecutionUtils.prettyPrintDecisions(taskCompletedRequest.getDecisions()));
+                if (log.isDebugEnabled() && firstTask.getEvents() != null) {
+                    log.debug("Failed taskId=" + firstTask.getStartedEventId() + " history: "
+                            + WorkflowExecutionUtils.prettyPrintHistory(firstTask.getEvents(), true));
                 }
             }
+            if (taskCompletedRequest != null && decisionsLog.isWarnEnabled()) {
+                decisionsLog.warn("Failed taskId=" + firstTask.getStartedEventId() + " decisions="
+                        + WorkflowExecutionUtils.prettyPrintDecisions(taskCompletedRequest.getDecisions()));
+            }
             throw e;
         }
-        return true;
+        finally {
+            tasks.close();
+        }
     }
 
     /**
@@ -256,14 +545,23 @@ public class DecisionTaskPoller implements TaskPoller {
 
     @Override
     public void shutdown() {
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdown();
+        }
     }
 
     @Override
     public void shutdownNow() {
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+        }
     }
 
     @Override
     public boolean awaitTermination(long left, TimeUnit milliseconds) throws InterruptedException {
+        if (prefetchExecutor != null) {
+            prefetchExecutor.awaitTermination(left, milliseconds);
+        }
         //TODO: Waiting for all currently running pollAndProcessSingleTask to complete 
         return false;
     }
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import java.util.List;
+
+import com.amazonaws.services.simpleworkflow.model.DecisionTask;
+import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
+
+/**
+ * Estimates heap retained by a decision task replay from the first page of its
+ * history. Pages of paginated histories are converted to compact events and
+ * released as the replay proceeds, so only the current page and the pages
+ * fetched ahead of the replay are retained at any time.
+ */
+class DecisionTaskSizeEstimator {
+
+    /**
+     * Approximate size of a history event bean with its attributes object,
+     * timestamp, ids and short strings.
+     */
+    static final int EVENT_OVERHEAD_BYTES = 1024;
+
+    /**
+     * Approximate size of a {@link CompactHistoryEvent} without its attributes
+     * that are shared with the polled event.
+     */
+    static final int COMPACT_EVENT_OVERHEAD_BYTES = 48;
+
+    /**
+     * Maximum number of events in a history page returned by the service.
+     */
+    static final int MAXIMUM_PAGE_EVENTS = 1000;
+
+    /**
+     * Acquired from the budget before a poll. Size of a full page of events
+     * without payloads.
+     */
+    static final long RESERVATION_BYTES = (long) MAXIMUM_PAGE_EVENTS
+            * (EVENT_OVERHEAD_BYTES + COMPACT_EVENT_OVERHEAD_BYTES);
+
+    private DecisionTaskSizeEstimator() {
+    }
+
+    /**
+     * If the history is paginated the size of the first page is used for the
+     * pages fetched ahead of the replay. Their number is limited by the
+     * prefetch depth and the number of remaining events that is derived from
+     * startedEventId.
+     * 
+     * @param prefetchDepth
+     *            maximum number of pages fetched ahead of the replay
+     */
+    static long estimateRetainedSize(DecisionTask firstPage, int prefetchDepth) {
+        List<HistoryEvent> events = firstPage.getEvents();
+        if (events == null || events.isEmpty()) {
+            return EVENT_OVERHEAD_BYTES;
+        }
+        long pageSize = 0;
+        for (HistoryEvent event : events) {
+            pageSize += EVENT_OVERHEAD_BYTES + COMPACT_EVENT_OVERHEAD_BYTES + 2 * getPayloadLength(event);
+        }
+        if (firstPage.getNextPageToken() == null) {
+            return pageSize;
+        }
+        // The next page is fetched while the current one is still referenced
+        long pagesAhead = Math.max(1, prefetchDepth);
+        if (firstPage.getStartedEventId() != null) {
+            long remainingEvents = firstPage.getStartedEventId() - events.size();
+            long remainingPages = (remainingEvents + events.size() - 1) / events.size();
+            pagesAhead = Math.max(1, Math.min(pagesAhead, remainingPages));
+        }
+        return pageSize * (1 + pagesAhead);
+    }
+
+    /**
+     * @return number of characters in the user supplied fields of the event
+     */
+    static long getPayloadLength(HistoryEvent event) {
+        if (event.getWorkflowExecutionStartedEventAttributes() != null) {
+            return length(event.getWorkflowExecutionStartedEventAttributes().getInput());
+        }
+        if (event.getActivityTaskScheduledEventAttributes() != null) {
+            return length(event.getActivityTaskScheduledEventAttributes().getInput())
+                    + length(event.getActivityTaskScheduledEventAttributes().getControl());
+        }
+        if (event.getActivityTaskCompletedEventAttributes() != null) {
+            return length(event.getActivityTaskCompletedEventAttributes().getResult());
+        }
+        if (event.getActivityTaskFailedEventAttributes() != null) {
+            return length(event.getActivityTaskFailedEventAttributes().getReason())
+                    + length(event.getActivityTaskFailedEventAttributes().getDetails());
+        }
+        if (event.getActivityTaskTimedOutEventAttributes() != null) {
+            return length(event.getActivityTaskTimedOutEventAttributes().getDetails());
+        }
+        if (event.getActivityTaskCanceledEventAttributes() != null) {
+            return length(event.getActivityTaskCanceledEventAttributes().getDetails());
+        }
+        if (event.getDecisionTaskCompletedEventAttributes() != null) {
+            return length(event.getDecisionTaskCompletedEventAttributes().getExecutionContext());
+        }
+        if (event.getWorkflowExecutionSignaledEventAttributes() != null) {
+            return length(event.getWorkflowExecutionSignaledEventAttributes().getInput());
+        }
+        if (event.getMarkerRecordedEventAttributes() != null) {
+            return length(event.getMarkerRecordedEventAttributes().getDetails());
+        }
+        if (event.getStartChildWorkflowExecutionInitiatedEventAttributes() != null) {
+            return length(event.getStartChildWorkflowExecutionInitiatedEventAttributes().getInput())
+                    + length(event.getStartChildWorkflowExecutionInitiatedEventAttributes().getControl());
+        }
+        if (event.getChildWorkflowExecutionCompletedEventAttributes() != null) {
+            return length(event.getChildWorkflowExecutionCompletedEventAttributes().getResult());
+        }
+        if (event.getChildWorkflowExecutionFailedEventAttributes() != null) {
+            return length(event.getChildWorkflowExecutionFailedEventAttributes().getReason())
+                    + length(event.getChildWorkflowExecutionFailedEventAttributes().getDetails());
+        }
+        if (event.getSignalExternalWorkflowExecutionInitiatedEventAttributes() != null) {
+            return length(event.getSignalExternalWorkflowExecutionInitiatedEventAttributes().getInput())
+                    + length(event.getSignalExternalWorkflowExecutionInitiatedEventAttributes().getControl());
+        }
+        if (event.getLambdaFunctionScheduledEventAttributes() != null) {
+            return length(event.getLambdaFunctionScheduledEventAttributes().getInput());
+        }
+        if (event.getLambdaFunctionCompletedEventAttributes() != null) {
+            return length(event.getLambdaFunctionCompletedEventAttributes().getResult());
+        }
+        if (event.getLambdaFunctionFailedEventAttributes() != null) {
+            return length(event.getLambdaFunctionFailedEventAttributes().getReason())
+                    + length(event.getLambdaFunctionFailedEventAttributes().getDetails());
+        }
+        if (event.getWorkflowExecutionCompletedEventAttributes() != null) {
+            return length(event.getWorkflowExecutionCompletedEventAttributes().getResult());
+        }
+        if (event.getWorkflowExecutionFailedEventAttributes() != null) {
+            return length(event.getWorkflowExecutionFailedEventAttributes().getReason())
+                    + length(event.getWorkflowExecutionFailedEventAttributes().getDetails());
+        }
+        if (event.getWorkflowExecutionContinuedAsNewEventAttributes() != null) {
+            return length(event.getWorkflowExecutionContinuedAsNewEventAttributes().getInput());
+        }
+        return 0;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
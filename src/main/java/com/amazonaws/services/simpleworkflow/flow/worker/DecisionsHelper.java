@@ -17,7 +17,6 @@ package com.amazonaws.services.simpleworkflow.flow.worker;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -40,11 +39,9 @@ import com.amazonaws.services.simpleworkflow.model.ChildWorkflowExecutionStarted
 import com.amazonaws.services.simpleworkflow.model.CompleteWorkflowExecutionDecisionAttributes;
 import com.amazonaws.services.simpleworkflow.model.ContinueAsNewWorkflowExecutionDecisionAttributes;
 import com.amazonaws.services.simpleworkflow.model.Decision;
-import com.amazonaws.services.simpleworkflow.model.DecisionTask;
 import com.amazonaws.services.simpleworkflow.model.DecisionTaskCompletedEventAttributes;
 import com.amazonaws.services.simpleworkflow.model.DecisionType;
 import com.amazonaws.services.simpleworkflow.model.FailWorkflowExecutionDecisionAttributes;
-import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
 import com.amazonaws.services.simpleworkflow.model.LambdaFunctionCompletedEventAttributes;
 import com.amazonaws.services.simpleworkflow.model.LambdaFunctionFailedEventAttributes;
 import com.amazonaws.services.simpleworkflow.model.LambdaFunctionScheduledEventAttributes;
@@ -76,19 +73,18 @@ class DecisionsHelper {
 
     static final String FORCE_IMMEDIATE_DECISION_TIMER = "FORCE_IMMEDIATE_DECISION";
 
-    private final DecisionTask task;
-
     private long idCounter;
 
-    private final Map<Long, String> activitySchedulingEventIdToActivityId = new HashMap<Long, String>();
+    private final LongStringMap activitySchedulingEventIdToActivityId = new LongStringMap();
 
-    private final Map<Long, String> signalInitiatedEventIdToSignalId = new HashMap<Long, String>();
+    private final LongStringMap signalInitiatedEventIdToSignalId = new LongStringMap();
 
-    private final Map<Long, String> lambdaSchedulingEventIdToLambdaId = new HashMap<Long, String>();
+    private final LongStringMap lambdaSchedulingEventIdToLambdaId = new LongStringMap();
 
     /**
      * Use access-order to ensure that decisions are emitted in order of their
-     * creation
+     * creation. State machines that are terminal are removed on the next
+     * decision task started event.
      */
     private final Map<DecisionId, DecisionStateMachine> decisions = new LinkedHashMap<DecisionId, DecisionStateMachine>(100,
             0.75f, true);
@@ -99,10 +95,6 @@ class DecisionsHelper {
 
     private String workfowContextFromLastDecisionCompletion;
 
-    DecisionsHelper(DecisionTask task) {
-        this.task = task;
-    }
-
     void scheduleLambdaFunction(ScheduleLambdaFunctionDecisionAttributes schedule) {
         DecisionId decisionId = new DecisionId(DecisionTarget.LAMBDA_FUNCTION, schedule.getId());
         addDecision(decisionId, new LambdaFunctionDecisionStateMachine(decisionId, schedule));
@@ -125,7 +117,7 @@ class DecisionsHelper {
         return decision.isDone();
     }
 
-    boolean handleLambdaFunctionScheduled(HistoryEvent event) {
+    boolean handleLambdaFunctionScheduled(CompactHistoryEvent event) {
         LambdaFunctionScheduledEventAttributes attributes = event.getLambdaFunctionScheduledEventAttributes();
         String functionId = attributes.getId();
         lambdaSchedulingEventIdToLambdaId.put(event.getEventId(), functionId);
@@ -134,7 +126,7 @@ class DecisionsHelper {
         return decision.isDone();
     }
 
-    public boolean handleScheduleLambdaFunctionFailed(HistoryEvent event) {
+    public boolean handleScheduleLambdaFunctionFailed(CompactHistoryEvent event) {
         ScheduleLambdaFunctionFailedEventAttributes attributes = event.getScheduleLambdaFunctionFailedEventAttributes();
         String functionId = attributes.getId();
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.LAMBDA_FUNCTION, functionId));
@@ -164,7 +156,7 @@ class DecisionsHelper {
         return decision.isDone();
     }
 
-    boolean handleActivityTaskScheduled(HistoryEvent event) {
+    boolean handleActivityTaskScheduled(CompactHistoryEvent event) {
         ActivityTaskScheduledEventAttributes attributes = event.getActivityTaskScheduledEventAttributes();
         String activityId = attributes.getActivityId();
         activitySchedulingEventIdToActivityId.put(event.getEventId(), activityId);
@@ -173,7 +165,7 @@ class DecisionsHelper {
         return decision.isDone();
     }
 
-    public boolean handleScheduleActivityTaskFailed(HistoryEvent event) {
+    public boolean handleScheduleActivityTaskFailed(CompactHistoryEvent event) {
         ScheduleActivityTaskFailedEventAttributes attributes = event.getScheduleActivityTaskFailedEventAttributes();
         String activityId = attributes.getActivityId();
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.ACTIVITY, activityId));
@@ -181,7 +173,7 @@ class DecisionsHelper {
         return decision.isDone();
     }
 
-    boolean handleActivityTaskCancelRequested(HistoryEvent event) {
+    boolean handleActivityTaskCancelRequested(CompactHistoryEvent event) {
         ActivityTaskCancelRequestedEventAttributes attributes = event.getActivityTaskCancelRequestedEventAttributes();
         String activityId = attributes.getActivityId();
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.ACTIVITY, activityId));
@@ -189,7 +181,7 @@ class DecisionsHelper {
         return decision.isDone();
     }
 
-    public boolean handleActivityTaskCanceled(HistoryEvent event) {
+    public boolean handleActivityTaskCanceled(CompactHistoryEvent event) {
         ActivityTaskCanceledEventAttributes attributes = event.getActivityTaskCanceledEventAttributes();
         String activityId = getActivityId(attributes);
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.ACTIVITY, activityId));
@@ -197,7 +189,7 @@ class DecisionsHelper {
         return decision.isDone();
     }
 
-    boolean handleRequestCancelActivityTaskFailed(HistoryEvent event) {
+    boolean handleRequestCancelActivityTaskFailed(CompactHistoryEvent event) {
         RequestCancelActivityTaskFailedEventAttributes attributes = event.getRequestCancelActivityTaskFailedEventAttributes();
         String activityId = attributes.getActivityId();
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.ACTIVITY, activityId));
@@ -210,14 +202,14 @@ class DecisionsHelper {
         addDecision(decisionId, new ChildWorkflowDecisionStateMachine(decisionId, schedule));
     }
 
-    void handleStartChildWorkflowExecutionInitiated(HistoryEvent event) {
+    void handleStartChildWorkflowExecutionInitiated(CompactHistoryEvent event) {
         StartChildWorkflowExecutionInitiatedEventAttributes attributes = event.getStartChildWorkflowExecutionInitiatedEventAttributes();
         String workflowId = attributes.getWorkflowId();
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.EXTERNAL_WORKFLOW, workflowId));
         decision.handleInitiatedEvent(event);
     }
 
-    public boolean handleStartChildWorkflowExecutionFailed(HistoryEvent event) {
+    public boolean handleStartChildWorkflowExecutionFailed(CompactHistoryEvent event) {
         StartChildWorkflowExecutionFailedEventAttributes attributes = event.getStartChildWorkflowExecutionFailedEventAttributes();
         String workflowId = attributes.getWorkflowId();
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.EXTERNAL_WORKFLOW, workflowId));
@@ -237,14 +229,14 @@ class DecisionsHelper {
         return decision.isDone();
     }
 
-    void handleRequestCancelExternalWorkflowExecutionInitiated(HistoryEvent event) {
+    void handleRequestCancelExternalWorkflowExecutionInitiated(CompactHistoryEvent event) {
         RequestCancelExternalWorkflowExecutionInitiatedEventAttributes attributes = event.getRequestCancelExternalWorkflowExecutionInitiatedEventAttributes();
         String workflowId = attributes.getWorkflowId();
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.EXTERNAL_WORKFLOW, workflowId));
         decision.handleCancellationInitiatedEvent();
     }
 
-    void handleRequestCancelExternalWorkflowExecutionFailed(HistoryEvent event) {
+    void handleRequestCancelExternalWorkflowExecutionFailed(CompactHistoryEvent event) {
         RequestCancelExternalWorkflowExecutionFailedEventAttributes attributes = event.getRequestCancelExternalWorkflowExecutionFailedEventAttributes();
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.EXTERNAL_WORKFLOW, attributes.getWorkflowId()));
         decision.handleCancellationFailureEvent(event);
@@ -260,7 +252,7 @@ class DecisionsHelper {
         decision.cancel(immediateCancellationCallback);
     }
 
-    void handleSignalExternalWorkflowExecutionInitiated(HistoryEvent event) {
+    void handleSignalExternalWorkflowExecutionInitiated(CompactHistoryEvent event) {
         SignalExternalWorkflowExecutionInitiatedEventAttributes attributes = event.getSignalExternalWorkflowExecutionInitiatedEventAttributes();
         String signalId = attributes.getControl();
         signalInitiatedEventIdToSignalId.put(event.getEventId(), signalId);
@@ -292,7 +284,7 @@ class DecisionsHelper {
         return decision.isDone();
     }
 
-    public void handleChildWorkflowExecutionStarted(HistoryEvent event) {
+    public void handleChildWorkflowExecutionStarted(CompactHistoryEvent event) {
         ChildWorkflowExecutionStartedEventAttributes attributes = event.getChildWorkflowExecutionStartedEventAttributes();
         String workflowId = attributes.getWorkflowExecution().getWorkflowId();
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.EXTERNAL_WORKFLOW, workflowId));
@@ -305,7 +297,7 @@ class DecisionsHelper {
         return decision.isDone();
     }
 
-    public void handleChildWorkflowExecutionCancelRequested(HistoryEvent event) {
+    public void handleChildWorkflowExecutionCancelRequested(CompactHistoryEvent event) {
     }
 
     public boolean handleChildWorkflowExecutionCanceled(String workflowId) {
@@ -320,28 +312,28 @@ class DecisionsHelper {
         return decision.isDone();
     }
 
-    boolean handleTimerStarted(HistoryEvent event) {
+    boolean handleTimerStarted(CompactHistoryEvent event) {
         TimerStartedEventAttributes attributes = event.getTimerStartedEventAttributes();
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.TIMER, attributes.getTimerId()));
         decision.handleInitiatedEvent(event);
         return decision.isDone();
     }
 
-    public boolean handleStartTimerFailed(HistoryEvent event) {
+    public boolean handleStartTimerFailed(CompactHistoryEvent event) {
         StartTimerFailedEventAttributes attributes = event.getStartTimerFailedEventAttributes();
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.TIMER, attributes.getTimerId()));
         decision.handleInitiationFailedEvent(event);
         return decision.isDone();
     }
 
-    boolean handleTimerCanceled(HistoryEvent event) {
+    boolean handleTimerCanceled(CompactHistoryEvent event) {
         TimerCanceledEventAttributes attributes = event.getTimerCanceledEventAttributes();
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.TIMER, attributes.getTimerId()));
         decision.handleCancellationEvent();
         return decision.isDone();
     }
 
-    boolean handleCancelTimerFailed(HistoryEvent event) {
+    boolean handleCancelTimerFailed(CompactHistoryEvent event) {
         CancelTimerFailedEventAttributes attributes = event.getCancelTimerFailedEventAttributes();
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.TIMER, attributes.getTimerId()));
         decision.handleCancellationFailureEvent(event);
@@ -403,22 +395,22 @@ class DecisionsHelper {
         this.failWorkflowExecution(e);
     }
 
-    void handleCompleteWorkflowExecutionFailed(HistoryEvent event) {
+    void handleCompleteWorkflowExecutionFailed(CompactHistoryEvent event) {
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.SELF, null));
         decision.handleInitiationFailedEvent(event);
     }
 
-    void handleFailWorkflowExecutionFailed(HistoryEvent event) {
+    void handleFailWorkflowExecutionFailed(CompactHistoryEvent event) {
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.SELF, null));
         decision.handleInitiationFailedEvent(event);
     }
 
-    void handleCancelWorkflowExecutionFailed(HistoryEvent event) {
+    void handleCancelWorkflowExecutionFailed(CompactHistoryEvent event) {
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.SELF, null));
         decision.handleInitiationFailedEvent(event);
     }
 
-    void handleContinueAsNewWorkflowExecutionFailed(HistoryEvent event) {
+    void handleContinueAsNewWorkflowExecutionFailed(CompactHistoryEvent event) {
         DecisionStateMachine decision = getDecision(new DecisionId(DecisionTarget.SELF, null));
         decision.handleInitiationFailedEvent(event);
     }
@@ -475,6 +467,7 @@ class DecisionsHelper {
     }
 
     public void handleDecisionTaskStartedEvent() {
+        releaseTerminalDecisions();
         int count = 0;
         Iterator<DecisionStateMachine> iterator = decisions.values().iterator();
         DecisionStateMachine next = null;
@@ -493,6 +486,37 @@ class DecisionsHelper {
         }
     }
 
+    /**
+     * Keeps only state machines that still expect decisions or events, so
+     * decision processing cost depends on the number of open activities,
+     * timers, etc. instead of the length of the history.
+     */
+    private void releaseTerminalDecisions() {
+        Iterator<DecisionStateMachine> iterator = decisions.values().iterator();
+        while (iterator.hasNext()) {
+            DecisionStateMachine decision = iterator.next();
+            if (!decision.isTerminal()) {
+                continue;
+            }
+            iterator.remove();
+            long initiatedEventId = decision.getInitiatedEventId();
+            if (initiatedEventId < 0) {
+                continue;
+            }
+            switch (decision.getId().decisionTarget) {
+            case ACTIVITY:
+                activitySchedulingEventIdToActivityId.remove(initiatedEventId);
+                break;
+            case LAMBDA_FUNCTION:
+                lambdaSchedulingEventIdToLambdaId.remove(initiatedEventId);
+                break;
+            case SIGNAL:
+                signalInitiatedEventIdToSignalId.remove(initiatedEventId);
+                break;
+            }
+        }
+    }
+
     private DecisionStateMachine getNextDecision(Iterator<DecisionStateMachine> iterator) {
         DecisionStateMachine result = null;
         while (result == null && iterator.hasNext()) {
@@ -540,49 +564,42 @@ class DecisionsHelper {
         workfowContextFromLastDecisionCompletion = decisionTaskCompletedEventAttributes.getExecutionContext();
     }
 
-    DecisionTask getTask() {
-        return task;
-    }
-
     String getActivityId(ActivityTaskCanceledEventAttributes attributes) {
-        Long sourceId = attributes.getScheduledEventId();
-        return activitySchedulingEventIdToActivityId.get(sourceId);
+        return getDecisionId(activitySchedulingEventIdToActivityId, attributes.getScheduledEventId());
     }
 
     String getActivityId(ActivityTaskCompletedEventAttributes attributes) {
-        Long sourceId = attributes.getScheduledEventId();
-        return activitySchedulingEventIdToActivityId.get(sourceId);
+        return getDecisionId(activitySchedulingEventIdToActivityId, attributes.getScheduledEventId());
     }
 
     String getActivityId(ActivityTaskFailedEventAttributes attributes) {
-        Long sourceId = attributes.getScheduledEventId();
-        return activitySchedulingEventIdToActivityId.get(sourceId);
+        return getDecisionId(activitySchedulingEventIdToActivityId, attributes.getScheduledEventId());
     }
 
     String getActivityId(ActivityTaskTimedOutEventAttributes attributes) {
-        Long sourceId = attributes.getScheduledEventId();
-        return activitySchedulingEventIdToActivityId.get(sourceId);
+        return getDecisionId(activitySchedulingEventIdToActivityId, attributes.getScheduledEventId());
     }
 
     String getFunctionId(LambdaFunctionCompletedEventAttributes attributes) {
-        Long sourceId = attributes.getScheduledEventId();
-        return lambdaSchedulingEventIdToLambdaId.get(sourceId);
+        return getDecisionId(lambdaSchedulingEventIdToLambdaId, attributes.getScheduledEventId());
     }
 
     String getFunctionId(LambdaFunctionFailedEventAttributes attributes) {
-        Long sourceId = attributes.getScheduledEventId();
-        return lambdaSchedulingEventIdToLambdaId.get(sourceId);
+        return getDecisionId(lambdaSchedulingEventIdToLambdaId, attributes.getScheduledEventId());
     }
 
     String getFunctionId(LambdaFunctionTimedOutEventAttributes attributes) {
-        Long sourceId = attributes.getScheduledEventId();
-        return lambdaSchedulingEventIdToLambdaId.get(sourceId);
+        return getDecisionId(lambdaSchedulingEventIdToLambdaId, attributes.getScheduledEventId());
     }
 
     String getSignalIdFromExternalWorkflowExecutionSignaled(long initiatedEventId) {
         return signalInitiatedEventIdToSignalId.get(initiatedEventId);
     }
 
+    private static String getDecisionId(LongStringMap eventIdToDecisionId, Long eventId) {
+        return eventId == null ? null : eventIdToDecisionId.get(eventId);
+    }
+
     private FailWorkflowExecutionDecisionAttributes createFailWorkflowInstanceAttributes(Throwable failure) {
         String reason;
         String details;
@@ -27,6 +27,8 @@ public class ExponentialRetryParameters {
     private long maximumRetryInterval = 20000;
 
     private int minimumRetries;
+
+    private BackoffJitter jitter = BackoffJitter.NONE;
     
     public long getInitialInterval() {
         return initialInterval;
@@ -79,6 +81,17 @@ public class ExponentialRetryParameters {
         this.minimumRetries = minimumRetries;
     }
 
+    public BackoffJitter getJitter() {
+        return jitter;
+    }
+
+    /**
+     * Randomization of retry intervals. Default is {@link BackoffJitter#NONE}.
+     */
+    public void setJitter(BackoffJitter jitter) {
+        this.jitter = jitter;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -91,6 +104,7 @@ public class ExponentialRetryParameters {
         result = prime * result + maximumRetries;
         result = prime * result + (int) (maximumRetryInterval ^ (maximumRetryInterval >>> 32));
         result = prime * result + minimumRetries;
+        result = prime * result + ((jitter == null) ? 0 : jitter.hashCode());
         return result;
     }
 
@@ -116,6 +130,8 @@ public class ExponentialRetryParameters {
             return false;
         if (minimumRetries != other.minimumRetries)
             return false;
+        if (jitter != other.jitter)
+            return false;
         return true;
     }
     
@@ -21,6 +21,7 @@ import java.util.concurrent.CancellationException;
 import com.amazonaws.services.simpleworkflow.flow.ActivityTaskFailedException;
 import com.amazonaws.services.simpleworkflow.flow.ActivityTaskTimedOutException;
 import com.amazonaws.services.simpleworkflow.flow.ScheduleActivityTaskFailedException;
+import com.amazonaws.services.simpleworkflow.flow.WorkflowClock;
 import com.amazonaws.services.simpleworkflow.flow.common.FlowHelpers;
 import com.amazonaws.services.simpleworkflow.flow.core.ExternalTask;
 import com.amazonaws.services.simpleworkflow.flow.core.ExternalTaskCancellationHandler;
@@ -36,7 +37,6 @@ import com.amazonaws.services.simpleworkflow.model.ActivityTaskFailedEventAttrib
 import com.amazonaws.services.simpleworkflow.model.ActivityTaskStartedEventAttributes;
 import com.amazonaws.services.simpleworkflow.model.ActivityTaskTimedOutEventAttributes;
 import com.amazonaws.services.simpleworkflow.model.ActivityType;
-import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
 import com.amazonaws.services.simpleworkflow.model.ScheduleActivityTaskDecisionAttributes;
 import com.amazonaws.services.simpleworkflow.model.ScheduleActivityTaskFailedEventAttributes;
 import com.amazonaws.services.simpleworkflow.model.TaskList;
@@ -72,19 +72,30 @@ class GenericActivityClientImpl implements GenericActivityClient {
 
     private final DecisionsHelper decisions;
 
+    private final WorkflowClock clock;
+
     private final Map<String, OpenRequestInfo<String, ActivityType>> scheduledActivities = new HashMap<String, OpenRequestInfo<String, ActivityType>>();
 
-    public GenericActivityClientImpl(DecisionsHelper decisions) {
+    public GenericActivityClientImpl(DecisionsHelper decisions, WorkflowClock clock) {
         this.decisions = decisions;
+        this.clock = clock;
     }
 
     @Override
     public Promise<String> scheduleActivityTask(final ExecuteActivityParameters parameters) {
         final OpenRequestInfo<String, ActivityType> context = new OpenRequestInfo<String, ActivityType>(
                 parameters.getActivityType());
-        final ScheduleActivityTaskDecisionAttributes attributes = new ScheduleActivityTaskDecisionAttributes();
+        final ScheduleActivityTaskDecisionAttributes attributes;
+        if (parameters.isInputConversionPending() && clock.isReplaying()) {
+            // Not converted unless the decision is sent. Conversion failures of the new decisions
+            // are still reported to the caller as their input is converted here.
+            attributes = new LazyInputScheduleActivityTaskDecisionAttributes(parameters);
+        }
+        else {
+            attributes = new ScheduleActivityTaskDecisionAttributes();
+            attributes.setInput(parameters.getInput());
+        }
         attributes.setActivityType(parameters.getActivityType());
-        attributes.setInput(parameters.getInput());
         attributes.setHeartbeatTimeout(FlowHelpers.secondsToDuration(parameters.getHeartbeatTimeoutSeconds()));
         attributes.setScheduleToCloseTimeout(FlowHelpers.secondsToDuration(parameters.getScheduleToCloseTimeoutSeconds()));
         attributes.setScheduleToStartTimeout(FlowHelpers.secondsToDuration(parameters.getScheduleToStartTimeoutSeconds()));
@@ -140,7 +151,7 @@ class GenericActivityClientImpl implements GenericActivityClient {
     void handleActivityTaskStarted(ActivityTaskStartedEventAttributes attributes) {
     }
 
-    void handleActivityTaskCanceled(HistoryEvent event) {
+    void handleActivityTaskCanceled(CompactHistoryEvent event) {
         ActivityTaskCanceledEventAttributes attributes = event.getActivityTaskCanceledEventAttributes();
         String activityId = decisions.getActivityId(attributes);
         if (decisions.handleActivityTaskCanceled(event)) {
@@ -155,7 +166,7 @@ class GenericActivityClientImpl implements GenericActivityClient {
         }
     }
 
-    void handleScheduleActivityTaskFailed(HistoryEvent event) {
+    void handleScheduleActivityTaskFailed(CompactHistoryEvent event) {
         ScheduleActivityTaskFailedEventAttributes attributes = event.getScheduleActivityTaskFailedEventAttributes();
         String activityId = attributes.getActivityId();
         OpenRequestInfo<String, ActivityType> scheduled = scheduledActivities.remove(activityId);
@@ -168,7 +179,7 @@ class GenericActivityClientImpl implements GenericActivityClient {
         }
     }
 
-    void handleActivityTaskCompleted(HistoryEvent event) {
+    void handleActivityTaskCompleted(CompactHistoryEvent event) {
         ActivityTaskCompletedEventAttributes attributes = event.getActivityTaskCompletedEventAttributes();
         String activityId = decisions.getActivityId(attributes);
         if (decisions.handleActivityTaskClosed(activityId)) {
@@ -182,7 +193,7 @@ class GenericActivityClientImpl implements GenericActivityClient {
         }
     }
 
-    void handleActivityTaskFailed(HistoryEvent event) {
+    void handleActivityTaskFailed(CompactHistoryEvent event) {
         ActivityTaskFailedEventAttributes attributes = event.getActivityTaskFailedEventAttributes();
         String activityId = decisions.getActivityId(attributes);
         if (decisions.handleActivityTaskClosed(activityId)) {
@@ -198,7 +209,7 @@ class GenericActivityClientImpl implements GenericActivityClient {
         }
     }
 
-    void handleActivityTaskTimedOut(HistoryEvent event) {
+    void handleActivityTaskTimedOut(CompactHistoryEvent event) {
         ActivityTaskTimedOutEventAttributes attributes = event.getActivityTaskTimedOutEventAttributes();
         String activityId = decisions.getActivityId(attributes);
         if (decisions.handleActivityTaskClosed(activityId)) {
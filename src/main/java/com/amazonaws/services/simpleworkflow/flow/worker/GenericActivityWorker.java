@@ -24,6 +24,7 @@ import org.apache.commons.logging.LogFactory;
 
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.simpleworkflow.AmazonSimpleWorkflow;
+import com.amazonaws.services.simpleworkflow.flow.ActivityExecutionContext;
 import com.amazonaws.services.simpleworkflow.flow.common.FlowConstants;
 import com.amazonaws.services.simpleworkflow.flow.common.FlowHelpers;
 import com.amazonaws.services.simpleworkflow.flow.generic.ActivityImplementation;
@@ -41,10 +42,23 @@ public class GenericActivityWorker extends GenericWorker {
 
     private static final String ACTIVITY_THREAD_NAME_PREFIX = "SWF Activity ";
 
+    private static final String HEARTBEAT_THREAD_NAME_PREFIX = "SWF Activity Heartbeat ";
+
+    /**
+     * Heartbeat calls are short, so a few threads serve many activities.
+     */
+    private static final int HEARTBEAT_THREAD_COUNT = 4;
+
     private ActivityImplementationFactory activityImplementationFactory;
 
     private int taskExecutorThreadPoolSize = 100;
 
+    private long heartbeatMinimumIntervalMillis;
+
+    private volatile ActivityTaskPoller activityTaskPoller;
+
+    private WorkerMetrics metrics;
+
     public GenericActivityWorker(AmazonSimpleWorkflow service, String domain, String taskListToPoll) {
         super(service, domain, taskListToPoll);
         if (service == null) {
@@ -76,6 +90,53 @@ public class GenericActivityWorker extends GenericWorker {
         this.taskExecutorThreadPoolSize = taskExecutorThreadPoolSize;
     }
 
+    public long getHeartbeatMinimumIntervalMillis() {
+        return heartbeatMinimumIntervalMillis;
+    }
+
+    /**
+     * When set {@link ActivityExecutionContext#recordActivityHeartbeat(String)}
+     * doesn't call the service. Heartbeats are reported in background not more
+     * often then once per interval for each task, sending only the latest
+     * details. Cancellation requested by the workflow is reported by the first
+     * heartbeat call after the service returns it. Default is 0 which means
+     * that the service is called on every heartbeat.
+     */
+    public void setHeartbeatMinimumIntervalMillis(long heartbeatMinimumIntervalMillis) {
+        if (heartbeatMinimumIntervalMillis < 0) {
+            throw new IllegalArgumentException("negative heartbeatMinimumIntervalMillis");
+        }
+        checkStarted();
+        this.heartbeatMinimumIntervalMillis = heartbeatMinimumIntervalMillis;
+    }
+
+    public WorkerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Receives per activity type timings of polls, waits for a task executor
+     * thread, executions and responds, sizes of inputs and outputs, as well
+     * as respond retries and number of tasks in progress. Default is
+     * <code>null</code> which means no metrics.
+     * 
+     * @see InMemoryWorkerMetrics
+     */
+    public void setMetrics(WorkerMetrics metrics) {
+        checkStarted();
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return number of activity tasks that are being executed. Together with
+     *         {@link #getTaskExecutorThreadPoolSize()} it gives utilization of
+     *         the task executor.
+     */
+    public int getTasksInProgress() {
+        ActivityTaskPoller poller = activityTaskPoller;
+        return poller == null ? 0 : poller.getTasksInProgress();
+    }
+
     protected Semaphore createPollSemaphore() {
         return new Semaphore(taskExecutorThreadPoolSize);
     }
@@ -83,7 +144,7 @@ public class GenericActivityWorker extends GenericWorker {
     @Override
     public String toString() {
         return this.getClass().getSimpleName() + " [super=" + super.toString() + ", taskExecutorThreadPoolSize="
-                + taskExecutorThreadPoolSize + "]";
+                + taskExecutorThreadPoolSize + ", heartbeatMinimumIntervalMillis=" + heartbeatMinimumIntervalMillis + "]";
     }
 
     @Override
@@ -93,11 +154,35 @@ public class GenericActivityWorker extends GenericWorker {
 
     @Override
     protected TaskPoller createPoller() {
-        ThreadPoolExecutor tasksExecutor = new ThreadPoolExecutor(1, taskExecutorThreadPoolSize, 1, TimeUnit.MINUTES,
-                new SynchronousQueue<Runnable>());
-        tasksExecutor.setThreadFactory(new ExecutorThreadFactory(ACTIVITY_THREAD_NAME_PREFIX + " " + getTaskListToPoll() + " "));
-        tasksExecutor.setRejectedExecutionHandler(new BlockCallerPolicy());
-        return new ActivityTaskPoller(service, domain, getTaskListToPoll(), activityImplementationFactory, tasksExecutor);
+        ActivityTaskPoller result;
+        if (isUseVirtualThreads()) {
+            // Thread per task, the number of concurrent tasks is limited by the poll semaphore
+            ThreadPoolExecutor tasksExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0, TimeUnit.SECONDS,
+                    new SynchronousQueue<Runnable>());
+            tasksExecutor.setThreadFactory(new ExecutorThreadFactory(ACTIVITY_THREAD_NAME_PREFIX + " " + getTaskListToPoll() + " "));
+            result = new ActivityTaskPoller(service, domain, getTaskListToPoll(), activityImplementationFactory, tasksExecutor,
+                    createPollSemaphore());
+        }
+        else {
+            ThreadPoolExecutor tasksExecutor = new ThreadPoolExecutor(1, taskExecutorThreadPoolSize, 1, TimeUnit.MINUTES,
+                    new SynchronousQueue<Runnable>());
+            tasksExecutor.setThreadFactory(new ExecutorThreadFactory(ACTIVITY_THREAD_NAME_PREFIX + " " + getTaskListToPoll() + " "));
+            tasksExecutor.setRejectedExecutionHandler(new BlockCallerPolicy());
+            result = new ActivityTaskPoller(service, domain, getTaskListToPoll(), activityImplementationFactory, tasksExecutor);
+        }
+        result.setMetrics(metrics);
+        if (heartbeatMinimumIntervalMillis > 0) {
+            result.setHeartbeatService(new ActivityHeartbeatService(service, heartbeatMinimumIntervalMillis,
+                    HEARTBEAT_THREAD_COUNT, new ExecutorThreadFactory(HEARTBEAT_THREAD_NAME_PREFIX + getTaskListToPoll() + " ")));
+        }
+        activityTaskPoller = result;
+        return result;
+    }
+
+    @Override
+    protected boolean isTaskExecutorSaturated() {
+        ActivityTaskPoller poller = activityTaskPoller;
+        return poller != null && poller.pollSemaphore.availablePermits() == 0;
     }
 
     @Override
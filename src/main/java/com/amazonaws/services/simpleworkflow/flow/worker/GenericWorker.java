@@ -47,7 +47,7 @@ public abstract class GenericWorker implements WorkerBase {
 
         @Override
         public Thread newThread(Runnable r) {
-            Thread result = new Thread(r);
+            Thread result = isUseVirtualThreads() ? VirtualThreads.newThread(r) : new Thread(r);
             result.setName(threadPrefix + (threadIndex.incrementAndGet()));
             result.setUncaughtExceptionHandler(uncaughtExceptionHandler);
             return result;
@@ -91,8 +91,11 @@ public abstract class GenericWorker implements WorkerBase {
                 if (pollExecutor.isTerminating()) {
                     return;
                 }
-                poller.pollAndProcessSingleTask();
+                boolean taskReceived = poller.pollAndProcessSingleTask();
                 pollBackoffThrottler.success();
+                if (pollThreadScaler != null) {
+                    pollThreadScaler.recordPoll(taskReceived);
+                }
             }
             catch (Throwable e) {
                 pollBackoffThrottler.failure();
@@ -103,7 +106,18 @@ public abstract class GenericWorker implements WorkerBase {
             finally {
                 // Resubmit itself back to pollExecutor
                 if (!pollExecutor.isShutdown()) {
-                    pollExecutor.execute(this);
+                    if (pollThreadScaler == null) {
+                        pollExecutor.execute(this);
+                    }
+                    else {
+                        int toStart = pollThreadScaler.adjust(isTaskExecutorSaturated());
+                        if (toStart >= 0) {
+                            pollExecutor.execute(this);
+                        }
+                        for (int i = 0; i < toStart; i++) {
+                            pollExecutor.execute(new PollServiceTask(poller));
+                        }
+                    }
                 }
             }
         }
@@ -133,10 +147,14 @@ public abstract class GenericWorker implements WorkerBase {
 
     private long pollBackoffMaximumInterval = 60000;
 
+    private BackoffJitter pollBackoffJitter = BackoffJitter.NONE;
+
     private boolean disableTypeRegitrationOnStart;
 
     private boolean disableServiceShutdownOnStop;
 
+    private boolean virtualThreads;
+
     private ThreadPoolExecutor pollExecutor;
 
     private String identity = ManagementFactory.getRuntimeMXBean().getName();
@@ -145,9 +163,15 @@ public abstract class GenericWorker implements WorkerBase {
 
     private int pollThreadCount = 1;
 
+    private int minimumPollThreadCount;
+
+    private int maximumPollThreadCount;
+
+    private volatile PollThreadScaler pollThreadScaler;
+
     private BackoffThrottler pollBackoffThrottler;
 
-    private Throttler pollRateThrottler;
+    private TokenBucketThrottler pollRateThrottler;
 
     protected UncaughtExceptionHandler uncaughtExceptionHandler = new UncaughtExceptionHandler() {
 
@@ -327,6 +351,22 @@ public abstract class GenericWorker implements WorkerBase {
         this.pollBackoffCoefficient = backoffCoefficient;
     }
 
+    public BackoffJitter getPollBackoffJitter() {
+        return pollBackoffJitter;
+    }
+
+    /**
+     * Randomization of poll backoff intervals. Without it all poll threads of
+     * all workers throttled by the service at the same time retry at the same
+     * time. Default is {@link BackoffJitter#NONE}.
+     */
+    public void setPollBackoffJitter(BackoffJitter pollBackoffJitter) {
+        if (pollBackoffJitter == null) {
+            throw new IllegalArgumentException("null pollBackoffJitter");
+        }
+        this.pollBackoffJitter = pollBackoffJitter;
+    }
+
     @Override
     public int getPollThreadCount() {
         return pollThreadCount;
@@ -338,6 +378,85 @@ public abstract class GenericWorker implements WorkerBase {
         this.pollThreadCount = threadCount;
     }
 
+    /**
+     * @return true if virtual threads are requested and supported by the
+     *         runtime
+     */
+    public boolean isUseVirtualThreads() {
+        return virtualThreads && VirtualThreads.isSupported();
+    }
+
+    /**
+     * Run poll loops and task execution on virtual threads. Intended for
+     * workers that spend most of their time blocked on network calls, as
+     * thousands of concurrent tasks don't require thousands of platform thread
+     * stacks. An activity worker starts a new virtual thread per task and
+     * limits the number of concurrent tasks to taskExecutorThreadPoolSize with
+     * a semaphore instead of a pool of that size. Ignored with a warning when
+     * the runtime doesn't support virtual threads (JDK 21+ is required).
+     * Default is <code>false</code>.
+     */
+    public void setUseVirtualThreads(boolean useVirtualThreads) {
+        checkStarted();
+        this.virtualThreads = useVirtualThreads;
+    }
+
+    public int getMinimumPollThreadCount() {
+        return minimumPollThreadCount;
+    }
+
+    /**
+     * @see #setMaximumPollThreadCount(int)
+     */
+    public void setMinimumPollThreadCount(int minimumPollThreadCount) {
+        checkStarted();
+        this.minimumPollThreadCount = minimumPollThreadCount;
+    }
+
+    public int getMaximumPollThreadCount() {
+        return maximumPollThreadCount;
+    }
+
+    /**
+     * Enables adaptive number of poll threads. The worker starts with
+     * minimumPollThreadCount (default is 1) poll threads and adds or removes
+     * one based on the fraction of polls that returned no task and on the task
+     * executor saturation. {@link #setPollThreadCount(int)} is ignored when
+     * set. Default is 0 which means fixed number of poll threads.
+     */
+    public void setMaximumPollThreadCount(int maximumPollThreadCount) {
+        checkStarted();
+        this.maximumPollThreadCount = maximumPollThreadCount;
+    }
+
+    /**
+     * @return number of poll threads currently polling
+     */
+    public int getActivePollThreadCount() {
+        PollThreadScaler scaler = pollThreadScaler;
+        if (scaler != null) {
+            return scaler.getActive();
+        }
+        return isStarted() ? pollThreadCount : 0;
+    }
+
+    /**
+     * @return description of the last adaptive poll thread count decision or
+     *         <code>null</code> if the number of poll threads is fixed
+     */
+    public String getPollThreadScalingDecision() {
+        PollThreadScaler scaler = pollThreadScaler;
+        return scaler == null ? null : scaler.getDecision();
+    }
+
+    /**
+     * Used by adaptive poll thread count to not add poll threads when polled
+     * tasks cannot be processed anyway.
+     */
+    protected boolean isTaskExecutorSaturated() {
+        return false;
+    }
+
     @Override
     public void setDisableTypeRegistrationOnStart(boolean disableTypeRegistrationOnStart) {
         this.disableTypeRegitrationOnStart = disableTypeRegistrationOnStart;
@@ -358,6 +477,10 @@ public abstract class GenericWorker implements WorkerBase {
         checkRequiredProperty(domain, "domain");
         checkRequiredProperty(taskListToPoll, "taskListToPoll");
         checkRequredProperties();
+        if (virtualThreads && !VirtualThreads.isSupported() && log.isWarnEnabled()) {
+            log.warn("Virtual threads are not supported by Java " + System.getProperty("java.version")
+                    + ", using platform threads");
+        }
 
         if (registerDomain) {
             registerDomain();
@@ -368,19 +491,30 @@ public abstract class GenericWorker implements WorkerBase {
         }
 
         if (maximumPollRatePerSecond > 0.0) {
-            pollRateThrottler = new Throttler("pollRateThrottler " + taskListToPoll, maximumPollRatePerSecond,
+            pollRateThrottler = new TokenBucketThrottler("pollRateThrottler " + taskListToPoll, maximumPollRatePerSecond,
                     maximumPollRateIntervalMilliseconds);
         }
 
-        pollExecutor = new ThreadPoolExecutor(pollThreadCount, pollThreadCount, 1, TimeUnit.MINUTES,
-                new LinkedBlockingQueue<Runnable>(pollThreadCount));
+        int initialPollThreadCount = pollThreadCount;
+        int maximumThreads = pollThreadCount;
+        if (maximumPollThreadCount > 0) {
+            initialPollThreadCount = Math.max(1, minimumPollThreadCount);
+            maximumThreads = maximumPollThreadCount;
+            pollThreadScaler = new PollThreadScaler(initialPollThreadCount, maximumThreads);
+        }
+        pollExecutor = new ThreadPoolExecutor(maximumThreads, maximumThreads, 1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<Runnable>(maximumThreads));
+        if (pollThreadScaler != null) {
+            // Release threads of the stopped poll loops
+            pollExecutor.allowCoreThreadTimeOut(true);
+        }
         ExecutorThreadFactory pollExecutorThreadFactory = getExecutorThreadFactory();
         pollExecutor.setThreadFactory(pollExecutorThreadFactory);
 
         pollBackoffThrottler = new BackoffThrottler(pollBackoffInitialInterval, pollBackoffMaximumInterval,
-                pollBackoffCoefficient);
+                pollBackoffCoefficient, pollBackoffJitter);
         poller = createPoller();
-        for (int i = 0; i < pollThreadCount; i++) {
+        for (int i = 0; i < initialPollThreadCount; i++) {
             pollExecutor.execute(new PollServiceTask(poller));
         }
     }
@@ -492,6 +626,8 @@ public abstract class GenericWorker implements WorkerBase {
         return this.getClass().getSimpleName() + "[service=" + service + ", domain=" + domain + ", taskListToPoll="
                 + taskListToPoll + ", identity=" + identity + ", backoffInitialInterval=" + pollBackoffInitialInterval
                 + ", backoffMaximumInterval=" + pollBackoffMaximumInterval + ", backoffCoefficient=" + pollBackoffCoefficient
+                + ", backoffJitter=" + pollBackoffJitter + ", useVirtualThreads=" + virtualThreads + ", pollThreadCount=" + pollThreadCount
+                + ", minimumPollThreadCount=" + minimumPollThreadCount + ", maximumPollThreadCount=" + maximumPollThreadCount
                 + "]";
     }
 
@@ -46,7 +46,6 @@ import com.amazonaws.services.simpleworkflow.model.ChildWorkflowExecutionStarted
 import com.amazonaws.services.simpleworkflow.model.ChildWorkflowExecutionTerminatedEventAttributes;
 import com.amazonaws.services.simpleworkflow.model.ChildWorkflowExecutionTimedOutEventAttributes;
 import com.amazonaws.services.simpleworkflow.model.ExternalWorkflowExecutionSignaledEventAttributes;
-import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
 import com.amazonaws.services.simpleworkflow.model.RequestCancelExternalWorkflowExecutionDecisionAttributes;
 import com.amazonaws.services.simpleworkflow.model.SignalExternalWorkflowExecutionDecisionAttributes;
 import com.amazonaws.services.simpleworkflow.model.SignalExternalWorkflowExecutionFailedEventAttributes;
@@ -262,11 +261,11 @@ class GenericWorkflowClientImpl implements GenericWorkflowClient {
         return runId + ":" + decisions.getNextId();
     }
 
-    public void handleChildWorkflowExecutionCancelRequested(HistoryEvent event) {
+    public void handleChildWorkflowExecutionCancelRequested(CompactHistoryEvent event) {
         decisions.handleChildWorkflowExecutionCancelRequested(event);
     }
 
-    void handleChildWorkflowExecutionCanceled(HistoryEvent event) {
+    void handleChildWorkflowExecutionCanceled(CompactHistoryEvent event) {
         ChildWorkflowExecutionCanceledEventAttributes attributes = event.getChildWorkflowExecutionCanceledEventAttributes();
         WorkflowExecution execution = attributes.getWorkflowExecution();
         String workflowId = execution.getWorkflowId();
@@ -282,7 +281,7 @@ class GenericWorkflowClientImpl implements GenericWorkflowClient {
         }
     }
 
-    void handleChildWorkflowExecutionStarted(HistoryEvent event) {
+    void handleChildWorkflowExecutionStarted(CompactHistoryEvent event) {
         ChildWorkflowExecutionStartedEventAttributes attributes = event.getChildWorkflowExecutionStartedEventAttributes();
         WorkflowExecution execution = attributes.getWorkflowExecution();
         String workflowId = execution.getWorkflowId();
@@ -298,7 +297,7 @@ class GenericWorkflowClientImpl implements GenericWorkflowClient {
         }
     }
 
-    void handleChildWorkflowExecutionTimedOut(HistoryEvent event) {
+    void handleChildWorkflowExecutionTimedOut(CompactHistoryEvent event) {
         ChildWorkflowExecutionTimedOutEventAttributes attributes = event.getChildWorkflowExecutionTimedOutEventAttributes();
         WorkflowExecution execution = attributes.getWorkflowExecution();
         String workflowId = execution.getWorkflowId();
@@ -313,7 +312,7 @@ class GenericWorkflowClientImpl implements GenericWorkflowClient {
         }
     }
 
-    void handleChildWorkflowExecutionTerminated(HistoryEvent event) {
+    void handleChildWorkflowExecutionTerminated(CompactHistoryEvent event) {
         ChildWorkflowExecutionTerminatedEventAttributes attributes = event.getChildWorkflowExecutionTerminatedEventAttributes();
         WorkflowExecution execution = attributes.getWorkflowExecution();
         String workflowId = execution.getWorkflowId();
@@ -328,7 +327,7 @@ class GenericWorkflowClientImpl implements GenericWorkflowClient {
         }
     }
 
-    void handleStartChildWorkflowExecutionFailed(HistoryEvent event) {
+    void handleStartChildWorkflowExecutionFailed(CompactHistoryEvent event) {
         StartChildWorkflowExecutionFailedEventAttributes attributes = event.getStartChildWorkflowExecutionFailedEventAttributes();
         String workflowId = attributes.getWorkflowId();
         if (decisions.handleStartChildWorkflowExecutionFailed(event)) {
@@ -346,7 +345,7 @@ class GenericWorkflowClientImpl implements GenericWorkflowClient {
         }
     }
 
-    void handleChildWorkflowExecutionFailed(HistoryEvent event) {
+    void handleChildWorkflowExecutionFailed(CompactHistoryEvent event) {
         ChildWorkflowExecutionFailedEventAttributes attributes = event.getChildWorkflowExecutionFailedEventAttributes();
         WorkflowExecution execution = attributes.getWorkflowExecution();
         String workflowId = execution.getWorkflowId();
@@ -363,7 +362,7 @@ class GenericWorkflowClientImpl implements GenericWorkflowClient {
         }
     }
 
-    void handleChildWorkflowExecutionCompleted(HistoryEvent event) {
+    void handleChildWorkflowExecutionCompleted(CompactHistoryEvent event) {
         ChildWorkflowExecutionCompletedEventAttributes attributes = event.getChildWorkflowExecutionCompletedEventAttributes();
         WorkflowExecution execution = attributes.getWorkflowExecution();
         String workflowId = execution.getWorkflowId();
@@ -379,7 +378,7 @@ class GenericWorkflowClientImpl implements GenericWorkflowClient {
         }
     }
 
-    void handleSignalExternalWorkflowExecutionFailed(HistoryEvent event) {
+    void handleSignalExternalWorkflowExecutionFailed(CompactHistoryEvent event) {
         SignalExternalWorkflowExecutionFailedEventAttributes attributes = event.getSignalExternalWorkflowExecutionFailedEventAttributes();
         String signalId = attributes.getControl();
         if (decisions.handleSignalExternalWorkflowExecutionFailed(signalId)) {
@@ -395,7 +394,7 @@ class GenericWorkflowClientImpl implements GenericWorkflowClient {
         }
     }
 
-    void handleExternalWorkflowExecutionSignaled(HistoryEvent event) {
+    void handleExternalWorkflowExecutionSignaled(CompactHistoryEvent event) {
         ExternalWorkflowExecutionSignaledEventAttributes attributes = event.getExternalWorkflowExecutionSignaledEventAttributes();
         String signalId = decisions.getSignalIdFromExternalWorkflowExecutionSignaled(attributes.getInitiatedEventId());
         if (decisions.handleExternalWorkflowExecutionSignaled(signalId)) {
@@ -15,6 +15,9 @@
 package com.amazonaws.services.simpleworkflow.flow.worker;
 
 import java.lang.management.ManagementFactory;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -23,6 +26,7 @@ import com.amazonaws.services.simpleworkflow.AmazonSimpleWorkflow;
 import com.amazonaws.services.simpleworkflow.flow.WorkflowTypeRegistrationOptions;
 import com.amazonaws.services.simpleworkflow.flow.common.FlowConstants;
 import com.amazonaws.services.simpleworkflow.flow.common.FlowHelpers;
+import com.amazonaws.services.simpleworkflow.flow.core.AsyncStackTraceCapture;
 import com.amazonaws.services.simpleworkflow.flow.generic.WorkflowDefinitionFactory;
 import com.amazonaws.services.simpleworkflow.flow.generic.WorkflowDefinitionFactoryFactory;
 import com.amazonaws.services.simpleworkflow.model.RegisterWorkflowTypeRequest;
@@ -36,8 +40,30 @@ public class GenericWorkflowWorker extends GenericWorker {
 
     private static final String THREAD_NAME_PREFIX = "SWF Decider ";
 
+    private static final String PREFETCH_THREAD_NAME_PREFIX = "SWF Decider History Prefetch ";
+
+    private static final String DECISION_THREAD_NAME_PREFIX = "SWF Decider Task ";
+
     private WorkflowDefinitionFactoryFactory workflowDefinitionFactoryFactory;
 
+    private int deciderCacheSize;
+
+    private long decisionTaskMemoryBudget;
+
+    private volatile MemoryBudget memoryBudget;
+
+    private int historyPagePrefetchDepth;
+
+    private int taskExecutorThreadPoolSize;
+
+    private volatile ConcurrentDecisionTaskPoller concurrentPoller;
+
+    private AsyncStackTraceCapture asyncStackTraceCapture;
+
+    private boolean skipAsyncStackTraceDuringReplay;
+
+    private WorkerMetrics metrics;
+
     public GenericWorkflowWorker() {
         setIdentity(ManagementFactory.getRuntimeMXBean().getName());
     }
@@ -57,6 +83,146 @@ public class GenericWorkflowWorker extends GenericWorker {
         this.workflowDefinitionFactoryFactory = workflowDefinitionFactoryFactory;
     }
 
+    public int getDeciderCacheSize() {
+        return deciderCacheSize;
+    }
+
+    /**
+     * Maximum number of open workflow executions which state is kept in memory
+     * between decision tasks. A decision task for a cached execution replays
+     * only events that were added to the history after the previous decision
+     * instead of the whole history. Cache miss, for example when the previous
+     * decision task was handled by another worker, falls back to the full
+     * replay. Default is 0 which disables caching.
+     */
+    public void setDeciderCacheSize(int deciderCacheSize) {
+        if (deciderCacheSize < 0) {
+            throw new IllegalArgumentException("negative deciderCacheSize");
+        }
+        checkStarted();
+        this.deciderCacheSize = deciderCacheSize;
+    }
+
+    public long getDecisionTaskMemoryBudget() {
+        return decisionTaskMemoryBudget;
+    }
+
+    /**
+     * Maximum heap in bytes that decision tasks processed concurrently are
+     * allowed to hold. The size of each task is estimated from the first page
+     * of its history and the history page prefetch depth. Each poll waits until
+     * a full history page fits into the budget. Default is 0 which means
+     * unlimited.
+     */
+    public void setDecisionTaskMemoryBudget(long decisionTaskMemoryBudget) {
+        if (decisionTaskMemoryBudget < 0) {
+            throw new IllegalArgumentException("negative decisionTaskMemoryBudget");
+        }
+        checkStarted();
+        this.decisionTaskMemoryBudget = decisionTaskMemoryBudget;
+    }
+
+    /**
+     * @return estimated heap in bytes held by decision tasks currently in
+     *         process. Always 0 if decisionTaskMemoryBudget is not set.
+     */
+    public long getDecisionTaskMemoryInUse() {
+        MemoryBudget budget = memoryBudget;
+        return budget == null ? 0 : budget.getInUse();
+    }
+
+    /**
+     * @return maximum value of {@link #getDecisionTaskMemoryInUse()} since the
+     *         worker start.
+     */
+    public long getDecisionTaskMemoryPeak() {
+        MemoryBudget budget = memoryBudget;
+        return budget == null ? 0 : budget.getPeak();
+    }
+
+    public int getHistoryPagePrefetchDepth() {
+        return historyPagePrefetchDepth;
+    }
+
+    /**
+     * Number of history pages fetched in background ahead of the page being
+     * replayed when a decision task history is paginated. Default is 0 which
+     * means that the next page is requested only after the replay of the
+     * current one.
+     */
+    public void setHistoryPagePrefetchDepth(int historyPagePrefetchDepth) {
+        if (historyPagePrefetchDepth < 0) {
+            throw new IllegalArgumentException("negative historyPagePrefetchDepth");
+        }
+        checkStarted();
+        this.historyPagePrefetchDepth = historyPagePrefetchDepth;
+    }
+
+    public int getTaskExecutorThreadPoolSize() {
+        return taskExecutorThreadPoolSize;
+    }
+
+    /**
+     * Number of threads that replay polled decision tasks. When set, poll
+     * threads hand each task to this pool and return to polling immediately,
+     * so a slow replay doesn't delay the next poll. Default is 0 which means
+     * that decision tasks are processed by the poll threads.
+     */
+    public void setTaskExecutorThreadPoolSize(int taskExecutorThreadPoolSize) {
+        if (taskExecutorThreadPoolSize < 0) {
+            throw new IllegalArgumentException("negative taskExecutorThreadPoolSize");
+        }
+        checkStarted();
+        this.taskExecutorThreadPoolSize = taskExecutorThreadPoolSize;
+    }
+
+    public AsyncStackTraceCapture getAsyncStackTraceCapture() {
+        return asyncStackTraceCapture;
+    }
+
+    /**
+     * How call sites of asynchronous workflow tasks are recorded for
+     * asynchronous stack traces. Capturing a stack on every task creation is
+     * one of the biggest CPU costs of a replay, so it can be deferred until a
+     * failure ({@link AsyncStackTraceCapture#LAZY}) or sampled (
+     * {@link AsyncStackTraceCapture#sampled(int, boolean)}). Default is
+     * <code>null</code> which means {@link AsyncStackTraceCapture#FULL}.
+     */
+    public void setAsyncStackTraceCapture(AsyncStackTraceCapture asyncStackTraceCapture) {
+        checkStarted();
+        this.asyncStackTraceCapture = asyncStackTraceCapture;
+    }
+
+    public boolean isSkipAsyncStackTraceDuringReplay() {
+        return skipAsyncStackTraceDuringReplay;
+    }
+
+    /**
+     * Do not record call sites of workflow tasks created while replaying
+     * already processed events. Default is <code>false</code>.
+     */
+    public void setSkipAsyncStackTraceDuringReplay(boolean skipAsyncStackTraceDuringReplay) {
+        checkStarted();
+        this.skipAsyncStackTraceDuringReplay = skipAsyncStackTraceDuringReplay;
+    }
+
+    public WorkerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Receives timings of decision task polls, history page polls, replays
+     * and responds along with numbers of pages, replayed events and decisions,
+     * all tagged by workflow type. Default is <code>null</code> which means no
+     * metrics.
+     * 
+     * @see InMemoryWorkerMetrics
+     */
+    public void setMetrics(WorkerMetrics metrics) {
+        checkStarted();
+        this.metrics = metrics;
+    }
+
     protected DecisionTaskPoller createWorkflowPoller() {
         DecisionTaskPoller poller = new DecisionTaskPoller();
         return poller;
@@ -74,15 +240,53 @@ public class GenericWorkflowWorker extends GenericWorker {
 
     @Override
     protected TaskPoller createPoller() {
-        DecisionTaskPoller result = new DecisionTaskPoller();
-        result.setDecisionTaskHandler(new AsyncDecisionTaskHandler(workflowDefinitionFactoryFactory));
-        result.setDomain(getDomain());
+        AsyncDecisionTaskHandler handler = new AsyncDecisionTaskHandler(workflowDefinitionFactoryFactory, deciderCacheSize);
+        handler.setAsyncStackTraceCapture(asyncStackTraceCapture);
+        handler.setSkipAsyncStackTraceDuringReplay(skipAsyncStackTraceDuringReplay);
+        handler.setMetrics(metrics);
+        DecisionTaskPoller result;
+        if (taskExecutorThreadPoolSize > 0) {
+            ThreadPoolExecutor tasksExecutor = new ThreadPoolExecutor(1, taskExecutorThreadPoolSize, 1, TimeUnit.MINUTES,
+                    new SynchronousQueue<Runnable>());
+            tasksExecutor.setThreadFactory(new ExecutorThreadFactory(DECISION_THREAD_NAME_PREFIX + getTaskListToPoll() + " "));
+            tasksExecutor.setRejectedExecutionHandler(new BlockCallerPolicy());
+            concurrentPoller = new ConcurrentDecisionTaskPoller(getService(), getDomain(), getTaskListToPoll(), handler,
+                    tasksExecutor);
+            concurrentPoller.setUncaughtExceptionHandler(uncaughtExceptionHandler);
+            result = concurrentPoller;
+        }
+        else {
+            result = new DecisionTaskPoller();
+            result.setDecisionTaskHandler(handler);
+            result.setDomain(getDomain());
+            result.setService(getService());
+            result.setTaskListToPoll(getTaskListToPoll());
+        }
         result.setIdentity(getIdentity());
-        result.setService(getService());
-        result.setTaskListToPoll(getTaskListToPoll());
+        result.setMetrics(metrics);
+        if (decisionTaskMemoryBudget > 0) {
+            memoryBudget = new MemoryBudget(decisionTaskMemoryBudget);
+            result.setMemoryBudget(memoryBudget);
+        }
+        if (historyPagePrefetchDepth > 0) {
+            ThreadPoolExecutor prefetchExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 1, TimeUnit.MINUTES,
+                    new SynchronousQueue<Runnable>());
+            prefetchExecutor.setThreadFactory(new ExecutorThreadFactory(PREFETCH_THREAD_NAME_PREFIX + getTaskListToPoll() + " "));
+            result.setPrefetch(prefetchExecutor, historyPagePrefetchDepth);
+        }
         return result;
     }
 
+    @Override
+    protected boolean isTaskExecutorSaturated() {
+        MemoryBudget budget = memoryBudget;
+        if (budget != null && budget.getInUse() >= budget.getBudget()) {
+            return true;
+        }
+        ConcurrentDecisionTaskPoller poller = concurrentPoller;
+        return poller != null && poller.pollSemaphore.availablePermits() == 0;
+    }
+
     @Override
     public void registerTypesToPoll() {
         registerWorkflowTypes(service, domain, getTaskListToPoll(), workflowDefinitionFactoryFactory);
@@ -91,7 +295,8 @@ public class GenericWorkflowWorker extends GenericWorker {
     @Override
     public String toString() {
         return this.getClass().getSimpleName() + "[super=" + super.toString() + ", workflowDefinitionFactoryFactory="
-                + workflowDefinitionFactoryFactory + "]";
+                + workflowDefinitionFactoryFactory + ", deciderCacheSize=" + deciderCacheSize + ", decisionTaskMemoryBudget=" + decisionTaskMemoryBudget
+                + ", historyPagePrefetchDepth=" + historyPagePrefetchDepth + ", taskExecutorThreadPoolSize=" + taskExecutorThreadPoolSize + "]";
     }
 
     public static void registerWorkflowTypes(AmazonSimpleWorkflow service, String domain, String defaultTaskList,
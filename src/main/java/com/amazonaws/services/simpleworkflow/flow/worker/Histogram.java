@@ -0,0 +1,159 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of non negative long values with bounded relative error
+ * in the spirit of HdrHistogram. Values below 128 are counted exactly. Bigger
+ * values are counted in buckets that cover one power of two each, split into
+ * 64 equal sub-buckets, so a reported value differs from the recorded one by
+ * less then 1/64 (about 1.6%). Footprint is fixed and doesn't depend on the
+ * number of recorded values.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+    /**
+     * Values from 2^(SUB_BUCKET_BITS - 1 + shift) to 2^(SUB_BUCKET_BITS + shift)
+     * are shifted right by shift, so Long.MAX_VALUE is shifted by 63 -
+     * SUB_BUCKET_BITS.
+     */
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKET_HALF_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong totalCount = new AtomicLong();
+
+    private final AtomicLong sum = new AtomicLong();
+
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param value
+     *            negative values are recorded as 0
+     */
+    public void recordValue(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(getIndex(value));
+        totalCount.incrementAndGet();
+        sum.addAndGet(value);
+        long current;
+        while (value < (current = min.get()) && !min.compareAndSet(current, value)) {
+        }
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+        }
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * @return sum of all recorded values. Overflows silently.
+     */
+    public long getSum() {
+        return sum.get();
+    }
+
+    /**
+     * @return 0 if nothing is recorded
+     */
+    public long getMin() {
+        long result = min.get();
+        return result == Long.MAX_VALUE ? 0 : result;
+    }
+
+    /**
+     * @return 0 if nothing is recorded
+     */
+    public long getMax() {
+        long result = max.get();
+        return result == Long.MIN_VALUE ? 0 : result;
+    }
+
+    public double getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    /**
+     * Values recorded concurrently with this call might be partially
+     * accounted.
+     * 
+     * @param percentile
+     *            from 0 to 100
+     * @return the highest value that is equivalent, within the histogram
+     *         precision, to the value that the given percentage of recorded
+     *         values doesn't exceed. 0 if nothing is recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile out of 0-100 range: " + percentile);
+        }
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += counts.get(i);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(getHighestEquivalentValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int getIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT + (int) (value >>> shift) - SUB_BUCKET_HALF_COUNT;
+    }
+
+    static long getHighestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        // Wraps around to Long.MAX_VALUE for the last sub-bucket
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram[count=" + getTotalCount() + ", min=" + getMin() + ", mean=" + (long) getMean() + ", p50="
+                + getValueAtPercentile(50) + ", p90=" + getValueAtPercentile(90) + ", p99=" + getValueAtPercentile(99)
+                + ", max=" + getMax() + "]";
+    }
+}
@@ -14,7 +14,10 @@
  */
 package com.amazonaws.services.simpleworkflow.flow.worker;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.commons.logging.Log;
@@ -25,28 +28,65 @@ import com.amazonaws.services.simpleworkflow.model.DecisionTask;
 import com.amazonaws.services.simpleworkflow.model.EventType;
 import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
 
+/**
+ * Provides access to the history of a decision task. Note that it clears
+ * events of the {@link DecisionTask} pages it iterates over when more pages
+ * follow them.
+ */
 class HistoryHelper {
 
     private static final Log historyLog = LogFactory.getLog(HistoryHelper.class.getName() + ".history");
 
-    class EventsIterator implements Iterator<HistoryEvent> {
+    /**
+     * Iterates over history events page by page. Only the current page and
+     * pages fetched ahead by {@link #isNextDecisionTimedOut()} are referenced,
+     * so memory used by the iteration is proportional to a page size and not
+     * to the whole history size.
+     * <p>
+     * Events of each page are converted to {@link CompactHistoryEvent} as soon
+     * as the page is fetched. Events of the pages that are followed by more
+     * pages are cleared from the given {@link DecisionTask} objects, so polled
+     * {@link HistoryEvent} beans of paginated histories are not retained by the
+     * replay. Events of the last page are left in place, so a single page task
+     * still has them when its processing fails.
+     */
+    class EventsIterator implements Iterator<CompactHistoryEvent> {
 
         private final Iterator<DecisionTask> decisionTasks;
 
+        /**
+         * Pages fetched from decisionTasks by the lookahead but not reached by
+         * the iteration yet.
+         */
+        private final LinkedList<Page> lookahead = new LinkedList<Page>();
+
+        private Page page;
+
         private DecisionTask decisionTask;
 
-        private List<HistoryEvent> events;
+        private List<CompactHistoryEvent> events;
 
         private int index;
 
+        /**
+         * Page and index at the moment of {@link #mark()}. <code>null</code>
+         * if not marked.
+         */
+        private Page markPage;
+
+        private int markIndex;
+
+        /**
+         * Pages reached by the iteration after the mark
+         */
+        private List<Page> passed;
+
+        private int eventsReturned;
+
         public EventsIterator(Iterator<DecisionTask> decisionTasks) {
             this.decisionTasks = decisionTasks;
             if (decisionTasks.hasNext()) {
-                decisionTask = decisionTasks.next();
-                events = decisionTask.getEvents();
-                if (historyLog.isTraceEnabled()) {
-                    historyLog.trace(WorkflowExecutionUtils.prettyPrintHistory(events, true));
-                }
+                setPage(fetchPage());
             }
             else {
                 decisionTask = null;
@@ -55,53 +95,185 @@ class HistoryHelper {
 
         @Override
         public boolean hasNext() {
-            return decisionTask != null && (index < events.size() || decisionTasks.hasNext());
+            if (decisionTask == null) {
+                return false;
+            }
+            if (index < events.size()) {
+                return true;
+            }
+            for (Page page : lookahead) {
+                if (!page.events.isEmpty()) {
+                    return true;
+                }
+            }
+            return decisionTasks.hasNext();
         }
 
         @Override
-        public HistoryEvent next() {
-            if (index == events.size()) {
-                decisionTask = decisionTasks.next();
-                events = decisionTask.getEvents();
-                if (historyLog.isTraceEnabled()) {
-                    historyLog.trace(WorkflowExecutionUtils.prettyPrintHistory(events, true));
-                }
-                index = 0;
+        public CompactHistoryEvent next() {
+            while (index == events.size()) {
+                nextPage();
             }
+            eventsReturned++;
             return events.get(index++);
         }
 
+        private void nextPage() {
+            if (lookahead.isEmpty()) {
+                setPage(fetchPage());
+            }
+            else {
+                setPage(lookahead.removeFirst());
+            }
+            if (passed != null) {
+                passed.add(page);
+            }
+        }
+
+        private void setPage(Page page) {
+            this.page = page;
+            decisionTask = page.decisionTask;
+            events = page.events;
+            index = 0;
+        }
+
+        /**
+         * Remembers the current position, so the iteration can be returned to
+         * it through {@link #reset()}. Pages passed after the mark are retained
+         * until {@link #unmark()} or {@link #reset()} is called.
+         */
+        public void mark() {
+            markPage = page;
+            markIndex = index;
+            passed = new ArrayList<Page>();
+        }
+
+        /**
+         * Returns the iteration to the position remembered by {@link #mark()}.
+         */
+        public void reset() {
+            if (markPage == null) {
+                throw new IllegalStateException("not marked");
+            }
+            lookahead.addAll(0, passed);
+            setPage(markPage);
+            index = markIndex;
+            unmark();
+        }
+
+        /**
+         * Releases pages retained since {@link #mark()}.
+         */
+        public void unmark() {
+            markPage = null;
+            passed = null;
+        }
+
+        private Page fetchPage() {
+            DecisionTask result = decisionTasks.next();
+            List<HistoryEvent> pageEvents = result.getEvents();
+            if (historyLog.isTraceEnabled()) {
+                historyLog.trace(WorkflowExecutionUtils.prettyPrintHistory(pageEvents, true));
+            }
+            List<CompactHistoryEvent> converted;
+            if (pageEvents == null) {
+                converted = Collections.emptyList();
+            }
+            else {
+                converted = new ArrayList<CompactHistoryEvent>(pageEvents.size());
+                for (HistoryEvent event : pageEvents) {
+                    converted.add(CompactHistoryEvent.from(event));
+                }
+            }
+            // Events of the last page are kept for the failure dump of single page tasks
+            if (result.getNextPageToken() != null) {
+                result.setEvents(null);
+            }
+            return new Page(result, converted);
+        }
+
+        /**
+         * Skips all events up to and including the one with the given id.
+         * 
+         * @return the event with the given id or <code>null</code> if history
+         *         doesn't contain it
+         */
+        public CompactHistoryEvent skipTo(long eventId) {
+            while (hasNext()) {
+                if (index == events.size()) {
+                    nextPage();
+                    continue;
+                }
+                CompactHistoryEvent event = events.get(index);
+                if (event.getEventId() > eventId) {
+                    return null;
+                }
+                index++;
+                if (event.getEventId() == eventId) {
+                    return event;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return number of events returned by {@link #next()}. Events passed
+         *         by {@link #skipTo(long)} are not included.
+         */
+        public int getEventsReturned() {
+            return eventsReturned;
+        }
+
         public DecisionTask getDecisionTask() {
             return decisionTask;
         }
 
-        public List<HistoryEvent> getEvents() {
+        public List<CompactHistoryEvent> getEvents() {
             return events;
         }
 
+        /**
+         * Looks ahead for the event that closes the last started decision.
+         * Pages are fetched only until such event is found.
+         */
         public boolean isNextDecisionTimedOut() {
-            int i = index;
-            while (true) {
-                for (; i < events.size(); i++) {
-                    HistoryEvent event = events.get(i);
-                    EventType eventType = EventType.fromValue(event.getEventType());
-                    if (eventType.equals(EventType.DecisionTaskTimedOut)) {
-                        return true;
-                    }
-                    else if (eventType.equals(EventType.DecisionTaskCompleted)) {
-                        return false;
-                    }
+            Boolean result = isDecisionTimedOut(events, index);
+            if (result != null) {
+                return result;
+            }
+            for (Page page : lookahead) {
+                result = isDecisionTimedOut(page.events, 0);
+                if (result != null) {
+                    return result;
                 }
-                if (!decisionTasks.hasNext()) {
-                    return false;
+            }
+            while (decisionTasks.hasNext()) {
+                Page page = fetchPage();
+                lookahead.addLast(page);
+                result = isDecisionTimedOut(page.events, 0);
+                if (result != null) {
+                    return result;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return <code>null</code> if events starting from the given index
+         *         contain neither DecisionTaskTimedOut nor
+         *         DecisionTaskCompleted
+         */
+        private Boolean isDecisionTimedOut(List<CompactHistoryEvent> pageEvents, int from) {
+            for (int i = from; i < pageEvents.size(); i++) {
+                EventType eventType = pageEvents.get(i).getEventType();
+                if (eventType == EventType.DecisionTaskTimedOut) {
+                    return true;
                 }
-                decisionTask = decisionTasks.next();
-                List<HistoryEvent> nextPageEvents = decisionTask.getEvents();
-                if (historyLog.isTraceEnabled()) {
-                    historyLog.trace(WorkflowExecutionUtils.prettyPrintHistory(nextPageEvents, true));
+                else if (eventType == EventType.DecisionTaskCompleted) {
+                    return false;
                 }
-                events.addAll(nextPageEvents);
             }
+            return null;
         }
 
         @Override
@@ -111,6 +283,18 @@ class HistoryHelper {
 
     }
 
+    private static final class Page {
+
+        private final DecisionTask decisionTask;
+
+        private final List<CompactHistoryEvent> events;
+
+        Page(DecisionTask decisionTask, List<CompactHistoryEvent> events) {
+            this.decisionTask = decisionTask;
+            this.events = events;
+        }
+    }
+
     private final EventsIterator events;
 
     public HistoryHelper(Iterator<DecisionTask> decisionTasks) {
@@ -122,7 +306,7 @@ class HistoryHelper {
     }
 
     public String toString() {
-        return WorkflowExecutionUtils.prettyPrintHistory(events.getEvents(), true);
+        return String.valueOf(events.getEvents());
     }
 
     public DecisionTask getDecisionTask() {
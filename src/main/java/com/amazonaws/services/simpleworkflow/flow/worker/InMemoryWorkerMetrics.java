@@ -0,0 +1,178 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps reported values in memory. Times and values are recorded in a
+ * {@link Histogram} per metric name and type, counters are summed. Intended for tests,
+ * benchmarks and periodic dumps to a log or a monitoring system.
+ */
+public class InMemoryWorkerMetrics extends WorkerMetrics {
+
+    private static final class Key implements Comparable<Key> {
+
+        private final String name;
+
+        private final String type;
+
+        private Key(String name, String type) {
+            if (name == null) {
+                throw new IllegalArgumentException("null name");
+            }
+            this.name = name;
+            this.type = type;
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() * 31 + (type == null ? 0 : type.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return name.equals(other.name) && (type == null ? other.type == null : type.equals(other.type));
+        }
+
+        @Override
+        public int compareTo(Key o) {
+            int result = name.compareTo(o.name);
+            if (result != 0) {
+                return result;
+            }
+            if (type == null) {
+                return o.type == null ? 0 : -1;
+            }
+            return o.type == null ? 1 : type.compareTo(o.type);
+        }
+
+        @Override
+        public String toString() {
+            return type == null ? name : name + "[" + type + "]";
+        }
+    }
+
+    private final ConcurrentMap<Key, Histogram> times = new ConcurrentHashMap<Key, Histogram>();
+
+    private final ConcurrentMap<Key, Histogram> values = new ConcurrentHashMap<Key, Histogram>();
+
+    private final ConcurrentMap<Key, AtomicLong> counters = new ConcurrentHashMap<Key, AtomicLong>();
+
+    @Override
+    public void recordTime(String name, String type, long nanoseconds) {
+        getOrCreate(times, new Key(name, type)).recordValue(nanoseconds);
+    }
+
+    @Override
+    public void recordValue(String name, String type, long value) {
+        getOrCreate(values, new Key(name, type)).recordValue(value);
+    }
+
+    private static Histogram getOrCreate(ConcurrentMap<Key, Histogram> histograms, Key key) {
+        Histogram result = histograms.get(key);
+        if (result == null) {
+            result = new Histogram();
+            Histogram existing = histograms.putIfAbsent(key, result);
+            if (existing != null) {
+                result = existing;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void increment(String name, String type, long delta) {
+        Key key = new Key(name, type);
+        AtomicLong counter = counters.get(key);
+        if (counter == null) {
+            counter = new AtomicLong();
+            AtomicLong existing = counters.putIfAbsent(key, counter);
+            if (existing != null) {
+                counter = existing;
+            }
+        }
+        counter.addAndGet(delta);
+    }
+
+    /**
+     * @return histogram of times in nanoseconds or <code>null</code> if
+     *         nothing was recorded for the name and type
+     */
+    public Histogram getTimes(String name, String type) {
+        return times.get(new Key(name, type));
+    }
+
+    /**
+     * @return histogram of values or <code>null</code> if nothing was
+     *         recorded for the name and type
+     */
+    public Histogram getValues(String name, String type) {
+        return values.get(new Key(name, type));
+    }
+
+    public long getCount(String name, String type) {
+        AtomicLong counter = counters.get(new Key(name, type));
+        return counter == null ? 0 : counter.get();
+    }
+
+    /**
+     * @return one line per metric and type sorted by name with times in
+     *         milliseconds
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (Map.Entry<Key, Histogram> entry : new TreeMap<Key, Histogram>(times).entrySet()) {
+            Histogram histogram = entry.getValue();
+            result.append(entry.getKey());
+            result.append(": count=").append(histogram.getTotalCount());
+            result.append(", mean=").append(toMilliseconds((long) histogram.getMean()));
+            result.append(", p50=").append(toMilliseconds(histogram.getValueAtPercentile(50)));
+            result.append(", p99=").append(toMilliseconds(histogram.getValueAtPercentile(99)));
+            result.append(", max=").append(toMilliseconds(histogram.getMax()));
+            result.append("ms\n");
+        }
+        for (Map.Entry<Key, Histogram> entry : new TreeMap<Key, Histogram>(values).entrySet()) {
+            Histogram histogram = entry.getValue();
+            result.append(entry.getKey());
+            result.append(": count=").append(histogram.getTotalCount());
+            result.append(", mean=").append((long) histogram.getMean());
+            result.append(", p50=").append(histogram.getValueAtPercentile(50));
+            result.append(", p99=").append(histogram.getValueAtPercentile(99));
+            result.append(", max=").append(histogram.getMax());
+            result.append("\n");
+        }
+        for (Map.Entry<Key, AtomicLong> entry : new TreeMap<Key, AtomicLong>(counters).entrySet()) {
+            result.append(entry.getKey()).append(": ").append(entry.getValue().get()).append("\n");
+        }
+        return result.toString();
+    }
+
+    private static String toMilliseconds(long nanoseconds) {
+        return String.format("%.3f", nanoseconds / 1e6);
+    }
+}
@@ -28,7 +28,6 @@ import com.amazonaws.services.simpleworkflow.flow.core.ExternalTaskCompletionHan
 import com.amazonaws.services.simpleworkflow.flow.core.Promise;
 import com.amazonaws.services.simpleworkflow.flow.core.Settable;
 import com.amazonaws.services.simpleworkflow.flow.core.Task;
-import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
 import com.amazonaws.services.simpleworkflow.model.LambdaFunctionCompletedEventAttributes;
 import com.amazonaws.services.simpleworkflow.model.LambdaFunctionFailedEventAttributes;
 import com.amazonaws.services.simpleworkflow.model.LambdaFunctionStartedEventAttributes;
@@ -132,7 +131,7 @@ public class LambdaFunctionClientImpl implements LambdaFunctionClient {
 			LambdaFunctionStartedEventAttributes attributes) {
 	}
 
-	void handleScheduleLambdaFunctionFailed(HistoryEvent event) {
+	void handleScheduleLambdaFunctionFailed(CompactHistoryEvent event) {
 		ScheduleLambdaFunctionFailedEventAttributes attributes = event
 				.getScheduleLambdaFunctionFailedEventAttributes();
 		String functionId = attributes.getId();
@@ -148,7 +147,7 @@ public class LambdaFunctionClientImpl implements LambdaFunctionClient {
 		}
 	}
 
-	void handleLambdaFunctionCompleted(HistoryEvent event) {
+	void handleLambdaFunctionCompleted(CompactHistoryEvent event) {
 		LambdaFunctionCompletedEventAttributes attributes = event
 				.getLambdaFunctionCompletedEventAttributes();
 		String lambdaId = decisions.getFunctionId(attributes);
@@ -165,7 +164,7 @@ public class LambdaFunctionClientImpl implements LambdaFunctionClient {
 		}
 	}
 
-	void handleLambdaFunctionFailed(HistoryEvent event) {
+	void handleLambdaFunctionFailed(CompactHistoryEvent event) {
 		LambdaFunctionFailedEventAttributes attributes = event
 				.getLambdaFunctionFailedEventAttributes();
 		String functionId = decisions.getFunctionId(attributes);
@@ -184,7 +183,7 @@ public class LambdaFunctionClientImpl implements LambdaFunctionClient {
 		}
 	}
 
-	void handleLambdaFunctionTimedOut(HistoryEvent event) {
+	void handleLambdaFunctionTimedOut(CompactHistoryEvent event) {
 		LambdaFunctionTimedOutEventAttributes attributes = event
 				.getLambdaFunctionTimedOutEventAttributes();
 		String functionId = decisions.getFunctionId(attributes);
@@ -16,7 +16,6 @@ package com.amazonaws.services.simpleworkflow.flow.worker;
 
 import com.amazonaws.services.simpleworkflow.model.Decision;
 import com.amazonaws.services.simpleworkflow.model.DecisionType;
-import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
 import com.amazonaws.services.simpleworkflow.model.ScheduleLambdaFunctionDecisionAttributes;
 
 class LambdaFunctionDecisionStateMachine extends DecisionStateMachineBase {
@@ -58,7 +57,7 @@ class LambdaFunctionDecisionStateMachine extends DecisionStateMachineBase {
     }
 
     @Override
-    public void handleCancellationFailureEvent(HistoryEvent event) {
+    public void handleCancellationFailureEvent(CompactHistoryEvent event) {
         switch (state) {
         case CANCELLATION_DECISION_SENT:
             stateHistory.add("handleCancellationFailureEvent");
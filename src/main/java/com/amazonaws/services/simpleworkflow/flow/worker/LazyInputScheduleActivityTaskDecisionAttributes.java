@@ -0,0 +1,55 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import com.amazonaws.services.simpleworkflow.flow.generic.ExecuteActivityParameters;
+import com.amazonaws.services.simpleworkflow.model.ScheduleActivityTaskDecisionAttributes;
+
+/**
+ * Takes input from {@link ExecuteActivityParameters} only when it is read,
+ * which happens when the decision is marshalled to be sent. Decisions made
+ * while replaying are matched with already recorded ActivityTaskScheduled
+ * events and are never sent, so their input is never converted.
+ */
+@SuppressWarnings("serial")
+class LazyInputScheduleActivityTaskDecisionAttributes extends ScheduleActivityTaskDecisionAttributes {
+
+    private ExecuteActivityParameters parameters;
+
+    LazyInputScheduleActivityTaskDecisionAttributes(ExecuteActivityParameters parameters) {
+        this.parameters = parameters;
+    }
+
+    @Override
+    public String getInput() {
+        if (parameters != null) {
+            super.setInput(parameters.getInput());
+            parameters = null;
+        }
+        return super.getInput();
+    }
+
+    @Override
+    public void setInput(String input) {
+        parameters = null;
+        super.setInput(input);
+    }
+
+    @Override
+    public LazyInputScheduleActivityTaskDecisionAttributes clone() {
+        // parameters are shared, so the input is converted at most once
+        return (LazyInputScheduleActivityTaskDecisionAttributes) super.clone();
+    }
+}
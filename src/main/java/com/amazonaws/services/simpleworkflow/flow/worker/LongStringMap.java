@@ -0,0 +1,156 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+/**
+ * Open addressing hash map from primitive long to String. Used to map history
+ * event ids to decision ids without boxing a Long and allocating an entry per
+ * mapping. Uses linear probing with backward shift deletion, so it doesn't
+ * accumulate tombstones when entries are removed. Null values are not
+ * supported. Not thread safe.
+ */
+class LongStringMap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+
+    /**
+     * <code>null</code> value marks an empty slot
+     */
+    private String[] values;
+
+    private int size;
+
+    private int mask;
+
+    LongStringMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    String get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    /**
+     * @return previous value or <code>null</code> if there was no mapping
+     */
+    String put(long key, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null value");
+        }
+        int index = slot(key);
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                String previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        // Keep load factor at or below 0.5 to keep probe sequences short
+        if (++size * 2 > values.length) {
+            rehash(values.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * @return removed value or <code>null</code> if there was no mapping
+     */
+    String remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        String result = values[index];
+        size--;
+        // Shift back entries of the same probe sequence to fill the gap
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (values[next] != null) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+        return result;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int indexOf(long key) {
+        int index = slot(key);
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slot(long key) {
+        // Event ids are sequential, so spread them to avoid clustering
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void allocate(int tableSize) {
+        keys = new long[tableSize];
+        values = new String[tableSize];
+        mask = tableSize - 1;
+    }
+
+    private void rehash(int tableSize) {
+        long[] oldKeys = keys;
+        String[] oldValues = values;
+        allocate(tableSize);
+        for (int i = 0; i < oldValues.length; i++) {
+            String value = oldValues[i];
+            if (value != null) {
+                int index = slot(oldKeys[i]);
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = value;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("{");
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                if (result.length() > 1) {
+                    result.append(", ");
+                }
+                result.append(keys[i]).append("=").append(values[i]);
+            }
+        }
+        return result.append("}").toString();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+/**
+ * Limits amount of heap used by concurrently processed tasks. As the size of a
+ * task is known only after it is polled, a provisional amount is acquired
+ * before each poll and is reconciled with the estimated size of the polled
+ * task. The task releases its size after it is processed. New polls are not
+ * started until their provisional amount fits into the budget.
+ * <p>
+ * A single task is always admitted when nothing is in use even if it is bigger
+ * then the whole budget.
+ * <p>
+ * Example usage:
+ *
+ * <pre>
+ * budget.acquire(reservation);
+ * Task task = poll();
+ * long size = estimateSize(task);
+ * budget.charge(size - reservation);
+ * try {
+ *     process(task);
+ * }
+ * finally {
+ *     budget.release(size);
+ * }
+ * </pre>
+ */
+public class MemoryBudget {
+
+    private final long budget;
+
+    private long inUse;
+
+    private long peak;
+
+    /**
+     * @param budget
+     *            maximum number of bytes that can be used by admitted tasks.
+     */
+    public MemoryBudget(long budget) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException("0 or negative budget");
+        }
+        this.budget = budget;
+    }
+
+    /**
+     * Blocks until the given amount fits into the budget and charges it.
+     */
+    public synchronized void acquire(long bytes) throws InterruptedException {
+        while (inUse > 0 && inUse + bytes > budget) {
+            wait();
+        }
+        charge(bytes);
+    }
+
+    /**
+     * Charges the given amount without waiting. Used to account for the part
+     * of a task size that exceeds the acquired amount. Negative amount
+     * releases the budget.
+     */
+    public synchronized void charge(long bytes) {
+        inUse += bytes;
+        if (inUse > peak) {
+            peak = inUse;
+        }
+        if (bytes < 0) {
+            notifyAll();
+        }
+    }
+
+    public synchronized void release(long bytes) {
+        inUse -= bytes;
+        notifyAll();
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * @return number of bytes charged by tasks that are currently in process.
+     */
+    public synchronized long getInUse() {
+        return inUse;
+    }
+
+    /**
+     * @return maximum value of {@link #getInUse()} since the budget creation.
+     */
+    public synchronized long getPeak() {
+        return peak;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MemoryBudget[budget=" + budget + ", inUse=" + inUse + ", peak=" + peak + "]";
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Decides how many poll loops a worker should run. Each loop reports the
+ * outcome of its polls and asks after each poll whether it should continue
+ * and whether more loops should be started.
+ * <p>
+ * Polls are aggregated over an interval. When most of them return no task the
+ * number of loops is reduced by one. When almost all of them return a task and
+ * the task executor is not saturated it is increased by one.
+ */
+class PollThreadScaler {
+
+    private static final Log log = LogFactory.getLog(PollThreadScaler.class);
+
+    static final long INTERVAL_MILLIS = 30000;
+
+    static final double SCALE_DOWN_EMPTY_POLL_RATIO = 0.5;
+
+    static final double SCALE_UP_EMPTY_POLL_RATIO = 0.1;
+
+    private final int minimum;
+
+    private final int maximum;
+
+    private int target;
+
+    private int active;
+
+    private long intervalStart;
+
+    private int polls;
+
+    private int emptyPolls;
+
+    private String decision = "initial";
+
+    PollThreadScaler(int minimum, int maximum) {
+        if (minimum < 1) {
+            throw new IllegalArgumentException("0 or negative minimum");
+        }
+        if (maximum < minimum) {
+            throw new IllegalArgumentException("maximum is less then minimum");
+        }
+        this.minimum = minimum;
+        this.maximum = maximum;
+        target = minimum;
+        active = minimum;
+        intervalStart = System.currentTimeMillis();
+    }
+
+    synchronized void recordPoll(boolean taskReceived) {
+        polls++;
+        if (!taskReceived) {
+            emptyPolls++;
+        }
+    }
+
+    /**
+     * Called by a poll loop after each poll.
+     * 
+     * @param taskExecutorSaturated
+     *            true if there is no capacity to process more tasks
+     * @return -1 if the calling loop should stop, otherwise number of new
+     *         loops to start
+     */
+    synchronized int adjust(boolean taskExecutorSaturated) {
+        long now = System.currentTimeMillis();
+        // At least one poll per loop to not react to a single long poll
+        if (now - intervalStart >= INTERVAL_MILLIS && polls >= active) {
+            double emptyPollRatio = (double) emptyPolls / polls;
+            int previous = target;
+            if (emptyPollRatio > SCALE_DOWN_EMPTY_POLL_RATIO && target > minimum) {
+                target--;
+            }
+            else if (emptyPollRatio < SCALE_UP_EMPTY_POLL_RATIO && target < maximum && !taskExecutorSaturated) {
+                target++;
+            }
+            decision = "target=" + target + " (was " + previous + "), polls=" + polls + ", emptyPollRatio="
+                    + emptyPollRatio + ", taskExecutorSaturated=" + taskExecutorSaturated;
+            if (target != previous && log.isDebugEnabled()) {
+                log.debug("Poll thread count changed: " + decision);
+            }
+            intervalStart = now;
+            polls = 0;
+            emptyPolls = 0;
+        }
+        if (active > target) {
+            active--;
+            return -1;
+        }
+        int toStart = target - active;
+        active = target;
+        return toStart;
+    }
+
+    synchronized int getActive() {
+        return active;
+    }
+
+    /**
+     * @return the last scaling decision with the statistics it was based on
+     */
+    synchronized String getDecision() {
+        return decision;
+    }
+}
@@ -16,7 +16,6 @@ package com.amazonaws.services.simpleworkflow.flow.worker;
 
 import com.amazonaws.services.simpleworkflow.model.Decision;
 import com.amazonaws.services.simpleworkflow.model.DecisionType;
-import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
 import com.amazonaws.services.simpleworkflow.model.SignalExternalWorkflowExecutionDecisionAttributes;
 
 class SignalDecisionStateMachine extends DecisionStateMachineBase {
@@ -25,6 +24,11 @@ class SignalDecisionStateMachine extends DecisionStateMachineBase {
     
     private boolean canceled;
 
+    /**
+     * Signal canceled after it was initiated still gets its completion event
+     */
+    private boolean completionEventExpected;
+
     public SignalDecisionStateMachine(DecisionId id, SignalExternalWorkflowExecutionDecisionAttributes attributes) {
         super(id);
         this.attributes = attributes;
@@ -53,6 +57,11 @@ class SignalDecisionStateMachine extends DecisionStateMachineBase {
         return state == DecisionState.COMPLETED || canceled;
     }
 
+    @Override
+    public boolean isTerminal() {
+        return state == DecisionState.COMPLETED && !completionEventExpected;
+    }
+
     @Override
     public void handleDecisionTaskStartedEvent() {
         switch (state) {
@@ -67,6 +76,9 @@ class SignalDecisionStateMachine extends DecisionStateMachineBase {
     @Override
     public void cancel(Runnable immediateCancellationCallback) {
         stateHistory.add("cancel");
+        if (state == DecisionState.INITIATED) {
+            completionEventExpected = true;
+        }
         switch (state) {
         case CREATED:
         case INITIATED:
@@ -89,8 +101,9 @@ class SignalDecisionStateMachine extends DecisionStateMachineBase {
     }
 
     @Override
-    public void handleInitiatedEvent(HistoryEvent event) {
+    public void handleInitiatedEvent(CompactHistoryEvent event) {
         stateHistory.add("handleInitiatedEvent");
+        initiatedEventId = event.getEventId();
         switch (state) {
         case DECISION_SENT:
             state = DecisionState.INITIATED;
@@ -106,12 +119,12 @@ class SignalDecisionStateMachine extends DecisionStateMachineBase {
     }
 
     @Override
-    public void handleInitiationFailedEvent(HistoryEvent event) {
+    public void handleInitiationFailedEvent(CompactHistoryEvent event) {
         throw new UnsupportedOperationException();
     }
 
     @Override
-    public void handleStartedEvent(HistoryEvent event) {
+    public void handleStartedEvent(CompactHistoryEvent event) {
         throw new UnsupportedOperationException();
     }
 
@@ -126,6 +139,7 @@ class SignalDecisionStateMachine extends DecisionStateMachineBase {
             break;
         case COMPLETED:
             // No state change
+            completionEventExpected = false;
             break;
         default:
             failStateTransition();
@@ -139,7 +153,7 @@ class SignalDecisionStateMachine extends DecisionStateMachineBase {
     }
 
     @Override
-    public void handleCancellationFailureEvent(HistoryEvent event) {
+    public void handleCancellationFailureEvent(CompactHistoryEvent event) {
         throw new UnsupportedOperationException();
     }
 
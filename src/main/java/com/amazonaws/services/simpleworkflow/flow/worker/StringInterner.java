@@ -0,0 +1,56 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pool of canonical string instances shared by all threads. Unlike
+ * {@link String#intern()} it is bounded: when the pool is full strings not
+ * already in it are returned as is. So it doesn't grow indefinitely if
+ * interned values are unexpectedly unique.
+ */
+class StringInterner {
+
+    static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+    private final ConcurrentMap<String, String> strings = new ConcurrentHashMap<String, String>();
+
+    private final int maximumSize;
+
+    StringInterner(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String result = strings.get(value);
+        if (result != null) {
+            return result;
+        }
+        if (strings.size() >= maximumSize) {
+            return value;
+        }
+        result = strings.putIfAbsent(value, value);
+        return result == null ? value : result;
+    }
+
+    int size() {
+        return strings.size();
+    }
+}
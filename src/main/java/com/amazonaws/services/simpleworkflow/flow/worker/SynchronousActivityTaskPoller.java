@@ -24,7 +24,6 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import com.amazonaws.services.simpleworkflow.AmazonSimpleWorkflow;
-import com.amazonaws.services.simpleworkflow.flow.ActivityExecutionContext;
 import com.amazonaws.services.simpleworkflow.flow.ActivityFailureException;
 import com.amazonaws.services.simpleworkflow.flow.common.WorkflowExecutionUtils;
 import com.amazonaws.services.simpleworkflow.flow.generic.ActivityImplementation;
@@ -58,6 +57,10 @@ public class SynchronousActivityTaskPoller implements TaskPoller {
 
     private boolean initialized;
 
+    private ActivityHeartbeatService heartbeatService;
+
+    private WorkerMetrics metrics;
+
     public SynchronousActivityTaskPoller(AmazonSimpleWorkflow service, String domain, String taskListToPoll,
             ActivityImplementationFactory activityImplementationFactory) {
         this();
@@ -135,6 +138,32 @@ public class SynchronousActivityTaskPoller implements TaskPoller {
         return taskListToPoll;
     }
 
+    ActivityHeartbeatService getHeartbeatService() {
+        return heartbeatService;
+    }
+
+    /**
+     * @param heartbeatService
+     *            if set heartbeats are reported in background through it
+     *            instead of calling the service on every heartbeat.
+     */
+    void setHeartbeatService(ActivityHeartbeatService heartbeatService) {
+        this.heartbeatService = heartbeatService;
+    }
+
+    public WorkerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Receives poll, execution and respond timings along with input and
+     * output sizes of activity tasks. <code>null</code> (default) means no
+     * metrics.
+     */
+    public void setMetrics(WorkerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Poll for a task using {@link #getPollTimeoutInSeconds()}
      * 
@@ -155,7 +184,13 @@ public class SynchronousActivityTaskPoller implements TaskPoller {
         if (log.isDebugEnabled()) {
             log.debug("poll request begin: " + pollRequest);
         }
+        long start = metrics == null ? 0 : System.nanoTime();
         ActivityTask result = service.pollForActivityTask(pollRequest);
+        if (metrics != null) {
+            boolean received = result != null && result.getTaskToken() != null;
+            metrics.recordTime(WorkerMetrics.ACTIVITY_TASK_POLL_TIME,
+                    received ? WorkerMetrics.getType(result.getActivityType()) : null, System.nanoTime() - start);
+        }
         if (result == null || result.getTaskToken() == null) {
             if (log.isDebugEnabled()) {
                 log.debug("poll request returned no task");
@@ -187,19 +222,40 @@ public class SynchronousActivityTaskPoller implements TaskPoller {
     protected void execute(final ActivityTask task) throws Exception {
         String output = null;
         ActivityType activityType = task.getActivityType();
+        ActivityExecutionContextImpl context = new ActivityExecutionContextImpl(service, domain, task, heartbeatService);
+        String type = null;
+        if (metrics != null) {
+            type = WorkerMetrics.getType(activityType);
+            metrics.recordValue(WorkerMetrics.ACTIVITY_INPUT_SIZE, type, length(task.getInput()));
+        }
         try {
-            ActivityExecutionContext context = new ActivityExecutionContextImpl(service, domain, task);
             ActivityImplementation activityImplementation = activityImplementationFactory.getActivityImplementation(activityType);
             if (activityImplementation == null) {
                 throw new ActivityFailureException("Unknown activity type: " + activityType);
             }
-            output = activityImplementation.execute(context);
+            long start = metrics == null ? 0 : System.nanoTime();
+            try {
+                output = activityImplementation.execute(context);
+            }
+            finally {
+                context.close();
+                if (metrics != null) {
+                    metrics.recordTime(WorkerMetrics.ACTIVITY_EXECUTION_TIME, type, System.nanoTime() - start);
+                }
+            }
             if (!activityImplementation.getExecutionOptions().isManualActivityCompletion()) {
+                if (metrics != null) {
+                    metrics.recordValue(WorkerMetrics.ACTIVITY_OUTPUT_SIZE, type, length(output));
+                }
+                long respondStart = metrics == null ? 0 : System.nanoTime();
                 respondActivityTaskCompletedWithRetry(task.getTaskToken(), output);
+                recordRespondTime(type, respondStart);
             }
         }
         catch (CancellationException e) {
+            long respondStart = metrics == null ? 0 : System.nanoTime();
             respondActivityTaskCanceledWithRetry(task.getTaskToken(), null);
+            recordRespondTime(type, respondStart);
             return;
         }
         catch (ActivityFailureException e) {
@@ -208,7 +264,9 @@ public class SynchronousActivityTaskPoller implements TaskPoller {
                         + task.getWorkflowExecution().getWorkflowId() + ", activity=" + activityType
                         + ", activityInstanceId=" + task.getActivityId(), e);
             }
+            long respondStart = metrics == null ? 0 : System.nanoTime();
             respondActivityTaskFailedWithRetry(task.getTaskToken(), e.getReason(), e.getDetails());
+            recordRespondTime(type, respondStart);
         }
         catch (Exception e) {
             if (log.isErrorEnabled()) {
@@ -220,7 +278,42 @@ public class SynchronousActivityTaskPoller implements TaskPoller {
             StringWriter sw = new StringWriter();
             e.printStackTrace(new PrintWriter(sw));
             String details = sw.toString();
+            long respondStart = metrics == null ? 0 : System.nanoTime();
             respondActivityTaskFailedWithRetry(task.getTaskToken(), reason, details);
+            recordRespondTime(type, respondStart);
+        }
+    }
+
+    private void recordRespondTime(String type, long respondStart) {
+        if (metrics != null) {
+            metrics.recordTime(WorkerMetrics.ACTIVITY_TASK_RESPOND_TIME, type, System.nanoTime() - respondStart);
+        }
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private void retry(SynchronousRetrier retrier, final Runnable respond) {
+        if (metrics == null) {
+            retrier.retry(respond);
+            return;
+        }
+        final int[] attempts = new int[1];
+        try {
+            retrier.retry(new Runnable() {
+
+                @Override
+                public void run() {
+                    attempts[0]++;
+                    respond.run();
+                }
+            });
+        }
+        finally {
+            if (attempts[0] > 1) {
+                metrics.increment(WorkerMetrics.ACTIVITY_TASK_RESPOND_RETRIES, null, attempts[0] - 1);
+            }
         }
     }
 
@@ -229,7 +322,7 @@ public class SynchronousActivityTaskPoller implements TaskPoller {
             respondActivityTaskFailed(taskToken, reason, details);
         }
         else {
-            reportFailureRetrier.retry(new Runnable() {
+            retry(reportFailureRetrier, new Runnable() {
 
                 @Override
                 public void run() {
@@ -252,7 +345,7 @@ public class SynchronousActivityTaskPoller implements TaskPoller {
             respondActivityTaskCanceled(taskToken, details);
         }
         else {
-            reportFailureRetrier.retry(new Runnable() {
+            retry(reportFailureRetrier, new Runnable() {
 
                 @Override
                 public void run() {
@@ -274,7 +367,7 @@ public class SynchronousActivityTaskPoller implements TaskPoller {
             respondActivityTaskCompleted(taskToken, output);
         }
         else {
-            reportCompletionRetrier.retry(new Runnable() {
+            retry(reportCompletionRetrier, new Runnable() {
 
                 @Override
                 public void run() {
@@ -297,16 +390,27 @@ public class SynchronousActivityTaskPoller implements TaskPoller {
         }
     }
 
+    /**
+     * The heartbeat service is shut down by {@link #awaitTermination(long, TimeUnit)}
+     * as activities that are still running keep recording heartbeats.
+     */
     @Override
     public void shutdown() {
     }
 
     @Override
     public void shutdownNow() {
+        if (heartbeatService != null) {
+            heartbeatService.shutdownNow();
+        }
     }
 
     @Override
     public boolean awaitTermination(long left, TimeUnit milliseconds) throws InterruptedException {
+        if (heartbeatService != null) {
+            heartbeatService.shutdown();
+            return heartbeatService.awaitTermination(left, milliseconds);
+        }
         //TODO: Waiting for all currently running pollAndProcessSingleTask to complete 
         return true;
     }
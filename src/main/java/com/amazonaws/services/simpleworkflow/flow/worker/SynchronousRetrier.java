@@ -38,6 +38,9 @@ public class SynchronousRetrier {
         if (retryParameters.getMaximumRetries() < retryParameters.getMinimumRetries()) {
             throw new IllegalArgumentException("maximumRetries < minimumRetries");
         }
+        if (retryParameters.getJitter() == null) {
+            throw new IllegalArgumentException("null jitter");
+        }
         this.retryParameters = retryParameters;
         this.exceptionsToNotRetry = exceptionsToNotRetry;
     }
@@ -54,7 +57,7 @@ public class SynchronousRetrier {
         int attempt = 0;
         long startTime = System.currentTimeMillis();
         BackoffThrottler throttler = new BackoffThrottler(retryParameters.getInitialInterval(),
-                retryParameters.getMaximumRetryInterval(), retryParameters.getBackoffCoefficient());
+                retryParameters.getMaximumRetryInterval(), retryParameters.getBackoffCoefficient(), retryParameters.getJitter());
         boolean success = false;
         do {
             try {
@@ -17,7 +17,6 @@ package com.amazonaws.services.simpleworkflow.flow.worker;
 import com.amazonaws.services.simpleworkflow.model.CancelTimerDecisionAttributes;
 import com.amazonaws.services.simpleworkflow.model.Decision;
 import com.amazonaws.services.simpleworkflow.model.DecisionType;
-import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
 import com.amazonaws.services.simpleworkflow.model.StartTimerDecisionAttributes;
 
 /**
@@ -72,7 +71,7 @@ class TimerDecisionStateMachine extends DecisionStateMachineBase {
     }
 
     @Override
-    public void handleCancellationFailureEvent(HistoryEvent event) {
+    public void handleCancellationFailureEvent(CompactHistoryEvent event) {
         switch (state) {
         case CANCELLATION_DECISION_SENT:
             stateHistory.add("handleCancellationFailureEvent");
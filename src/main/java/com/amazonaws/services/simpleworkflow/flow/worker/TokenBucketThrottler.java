@@ -0,0 +1,181 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Rate limiter with the same configuration as {@link Throttler} that doesn't
+ * hold any lock while waiting. The whole state is a single "theoretical
+ * arrival time" of the next permit updated by compare-and-set, so callers only
+ * contend for the duration of a CAS and then sleep independently.
+ * <p>
+ * A caller reserves permits first and then sleeps until the reservation
+ * becomes valid. Up to maxRatePerSecond * rateIntervalMilliseconds / 1000
+ * permits can be taken without waiting after an idle period.
+ * <p>
+ * Example usage:
+ * 
+ * <pre>
+ * TokenBucketThrottler throttler = new TokenBucketThrottler(&quot;poll&quot;, 10, 1000);
+ * while (running) {
+ *     throttler.throttle();
+ *     poll();
+ * }
+ * </pre>
+ */
+public class TokenBucketThrottler {
+
+    private static final Log log = LogFactory.getLog(TokenBucketThrottler.class);
+
+    private static final class Rate {
+
+        final long nanosPerPermit;
+
+        final long burstNanos;
+
+        Rate(long nanosPerPermit, long burstNanos) {
+            this.nanosPerPermit = nanosPerPermit;
+            this.burstNanos = burstNanos;
+        }
+    }
+
+    /**
+     * Human readable name of the resource being throttled. Used for logging
+     * only.
+     */
+    private final String name;
+
+    private final long rateIntervalMilliseconds;
+
+    private volatile Rate rate;
+
+    /**
+     * Time in {@link System#nanoTime()} units when all already reserved
+     * permits are paid off.
+     */
+    private final AtomicLong nextFreeTime;
+
+    /**
+     * @param name
+     *            Human readable name of the resource being throttled. Used for
+     *            logging only.
+     * @param maxRatePerSecond
+     *            maximum rate allowed
+     * @param rateIntervalMilliseconds
+     *            rate measurement interval. Defines how many permits can be
+     *            taken at once after an idle period.
+     */
+    public TokenBucketThrottler(String name, double maxRatePerSecond, long rateIntervalMilliseconds) {
+        if (null == name) {
+            throw new IllegalArgumentException("null name");
+        }
+        if (rateIntervalMilliseconds <= 0) {
+            throw new IllegalArgumentException("0 or negative rateIntervalMilliseconds");
+        }
+        this.name = name;
+        this.rateIntervalMilliseconds = rateIntervalMilliseconds;
+        setMaxRatePerSecond(maxRatePerSecond);
+        nextFreeTime = new AtomicLong(System.nanoTime());
+    }
+
+    public void setMaxRatePerSecond(double maxRatePerSecond) {
+        if (maxRatePerSecond <= 0) {
+            throw new IllegalArgumentException("0 or negative maxRatePerSecond");
+        }
+        long nanosPerPermit = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / maxRatePerSecond));
+        long burst = Math.max(1, (long) (maxRatePerSecond * rateIntervalMilliseconds / 1000));
+        rate = new Rate(nanosPerPermit, burst * nanosPerPermit);
+        if (log.isDebugEnabled()) {
+            log.debug(name + " new rate=" + maxRatePerSecond + " (msg/sec)");
+        }
+    }
+
+    /**
+     * Reserves permits without waiting.
+     * 
+     * @return nanoseconds the caller has to wait before using the reserved
+     *         permits
+     */
+    public long reserve(int permits) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("0 or negative permits");
+        }
+        Rate r = rate;
+        long cost = permits * r.nanosPerPermit;
+        while (true) {
+            long now = System.nanoTime();
+            long current = nextFreeTime.get();
+            long start = current - now > 0 ? current : now;
+            long next = start + cost;
+            if (nextFreeTime.compareAndSet(current, next)) {
+                long wait = next - r.burstNanos - now;
+                return wait > 0 ? wait : 0;
+            }
+        }
+    }
+
+    /**
+     * Takes permits only if they are available without waiting.
+     * 
+     * @return true if permits were taken
+     */
+    public boolean tryAcquire(int permits) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("0 or negative permits");
+        }
+        Rate r = rate;
+        long cost = permits * r.nanosPerPermit;
+        while (true) {
+            long now = System.nanoTime();
+            long current = nextFreeTime.get();
+            long start = current - now > 0 ? current : now;
+            long next = start + cost;
+            if (next - r.burstNanos - now > 0) {
+                return false;
+            }
+            if (nextFreeTime.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    public void throttle(int count) throws InterruptedException {
+        long wait = reserve(count);
+        if (wait > 0) {
+            if (log.isTraceEnabled()) {
+                log.trace("Throttling " + name + ": going to sleep for " + TimeUnit.NANOSECONDS.toMillis(wait)
+                        + " milliseconds.");
+            }
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * When called on each request sleeps if called faster then configured
+     * average rate.
+     * 
+     * @throws InterruptedException
+     *             when interrupted
+     */
+    public void throttle() throws InterruptedException {
+        throttle(1);
+    }
+
+}
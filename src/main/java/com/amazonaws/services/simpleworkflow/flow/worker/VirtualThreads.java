@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual threads when the runtime supports them. The library is
+ * compiled for older JDKs, so <code>Thread.ofVirtual()</code> is looked up
+ * reflectively once.
+ */
+final class VirtualThreads {
+
+    private static final ThreadFactory factory = createFactory();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the current runtime is able to create virtual threads
+     */
+    static boolean isSupported() {
+        return factory != null;
+    }
+
+    /**
+     * @return new unstarted virtual thread
+     * @throws IllegalStateException
+     *             if virtual threads are not supported
+     */
+    static Thread newThread(Runnable r) {
+        if (factory == null) {
+            throw new IllegalStateException("Virtual threads are not supported by " + System.getProperty("java.version"));
+        }
+        return factory.newThread(r);
+    }
+
+    private static ThreadFactory createFactory() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Object builder = ofVirtual.invoke(null);
+            // Implementation class of the builder is not public
+            Method factoryMethod = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factoryMethod.invoke(builder);
+        }
+        catch (Exception e) {
+            // Pre 21 runtime or preview features are not enabled
+            return null;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import com.amazonaws.services.simpleworkflow.model.ActivityType;
+import com.amazonaws.services.simpleworkflow.model.WorkflowType;
+
+/**
+ * Receives timings, values and counters reported by workers. Extend this class to
+ * forward them to a monitoring system of choice. Implementations are called
+ * concurrently from poll and task threads, so they must be thread safe and
+ * should not block.
+ * <p>
+ * Each value is reported under a metric name, which is one of the constants
+ * of this class, and a type that is the workflow or activity type formatted by
+ * {@link #getType(WorkflowType)} or {@link #getType(ActivityType)}. The type is
+ * <code>null</code> for values not related to a specific type, for example a
+ * poll that returned no task.
+ * 
+ * @see InMemoryWorkerMetrics
+ */
+public abstract class WorkerMetrics {
+
+    /**
+     * Time of a decision task poll request that returns the first history
+     * page.
+     */
+    public static final String DECISION_TASK_POLL_TIME = "DecisionTaskPollTime";
+
+    /**
+     * Time of a poll request that returns one of the following history pages.
+     */
+    public static final String HISTORY_PAGE_POLL_TIME = "HistoryPagePollTime";
+
+    /**
+     * Number of history pages received including the first one.
+     */
+    public static final String HISTORY_PAGES = "HistoryPages";
+
+    /**
+     * Number of history events processed by deciders.
+     */
+    public static final String EVENTS_REPLAYED = "EventsReplayed";
+
+    /**
+     * Wall clock time of a decision task replay including retrieval of the
+     * history pages that are not prefetched.
+     */
+    public static final String REPLAY_TIME = "ReplayTime";
+
+    /**
+     * CPU time of the thread that replayed a decision task. Not reported if
+     * JVM doesn't support thread CPU time measurement.
+     */
+    public static final String REPLAY_CPU_TIME = "ReplayCpuTime";
+
+    /**
+     * Number of decisions sent to the service.
+     */
+    public static final String DECISIONS = "Decisions";
+
+    /**
+     * Time of a respondDecisionTaskCompleted request.
+     */
+    public static final String DECISION_TASK_RESPOND_TIME = "DecisionTaskRespondTime";
+
+    /**
+     * Time of an activity task poll request. Type is <code>null</code> if no
+     * task was returned.
+     */
+    public static final String ACTIVITY_TASK_POLL_TIME = "ActivityTaskPollTime";
+
+    /**
+     * Time from the return of an activity task poll to the start of the task
+     * execution by the task executor.
+     */
+    public static final String ACTIVITY_TASK_QUEUE_TIME = "ActivityTaskQueueTime";
+
+    /**
+     * Time of an activity implementation execution.
+     */
+    public static final String ACTIVITY_EXECUTION_TIME = "ActivityExecutionTime";
+
+    /**
+     * Number of characters in an activity task input.
+     */
+    public static final String ACTIVITY_INPUT_SIZE = "ActivityInputSize";
+
+    /**
+     * Number of characters in an activity result.
+     */
+    public static final String ACTIVITY_OUTPUT_SIZE = "ActivityOutputSize";
+
+    /**
+     * Time of reporting activity task completion, failure or cancellation
+     * including retries.
+     */
+    public static final String ACTIVITY_TASK_RESPOND_TIME = "ActivityTaskRespondTime";
+
+    /**
+     * Number of retried attempts to report activity task completion, failure
+     * or cancellation. The type is always <code>null</code> as retries are
+     * done by the respond methods that don't know the activity type.
+     */
+    public static final String ACTIVITY_TASK_RESPOND_RETRIES = "ActivityTaskRespondRetries";
+
+    /**
+     * Number of activity tasks executed by a worker, including the one being
+     * started, sampled at the start of each task. Compared to the task
+     * executor size it gives the executor utilization. The type is always
+     * <code>null</code>.
+     */
+    public static final String ACTIVITY_TASKS_IN_PROGRESS = "ActivityTasksInProgress";
+
+    /**
+     * Records duration of an operation.
+     * 
+     * @param name
+     *            metric name
+     * @param type
+     *            workflow or activity type or <code>null</code>
+     */
+    public abstract void recordTime(String name, String type, long nanoseconds);
+
+    /**
+     * Records a value that is not a duration, like a payload size.
+     * 
+     * @param name
+     *            metric name
+     * @param type
+     *            workflow or activity type or <code>null</code>
+     */
+    public abstract void recordValue(String name, String type, long value);
+
+    /**
+     * Increments a counter.
+     * 
+     * @param name
+     *            metric name
+     * @param type
+     *            workflow or activity type or <code>null</code>
+     */
+    public abstract void increment(String name, String type, long delta);
+
+    public static String getType(WorkflowType workflowType) {
+        if (workflowType == null) {
+            return null;
+        }
+        return workflowType.getName() + "@" + workflowType.getVersion();
+    }
+
+    public static String getType(ActivityType activityType) {
+        if (activityType == null) {
+            return null;
+        }
+        return activityType.getName() + "@" + activityType.getVersion();
+    }
+}
@@ -28,7 +28,6 @@ import com.amazonaws.services.simpleworkflow.flow.core.ExternalTask;
 import com.amazonaws.services.simpleworkflow.flow.core.ExternalTaskCancellationHandler;
 import com.amazonaws.services.simpleworkflow.flow.core.ExternalTaskCompletionHandle;
 import com.amazonaws.services.simpleworkflow.flow.core.Promise;
-import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
 import com.amazonaws.services.simpleworkflow.model.StartTimerDecisionAttributes;
 import com.amazonaws.services.simpleworkflow.model.StartTimerFailedEventAttributes;
 import com.amazonaws.services.simpleworkflow.model.TimerCanceledEventAttributes;
@@ -141,7 +140,7 @@ class WorkflowClockImpl implements WorkflowClock {
     }
 
     @SuppressWarnings({ "rawtypes" })
-    void handleStartTimerFailed(HistoryEvent event) {
+    void handleStartTimerFailed(CompactHistoryEvent event) {
         StartTimerFailedEventAttributes attributes = event.getStartTimerFailedEventAttributes();
         String timerId = attributes.getTimerId();
         if (decisions.handleStartTimerFailed(event)) {
@@ -159,7 +158,7 @@ class WorkflowClockImpl implements WorkflowClock {
         }
     }
 
-    void handleTimerCanceled(HistoryEvent event) {
+    void handleTimerCanceled(CompactHistoryEvent event) {
         TimerCanceledEventAttributes attributes = event.getTimerCanceledEventAttributes();
         String timerId = attributes.getTimerId();
         if (decisions.handleTimerCanceled(event)) {
@@ -21,7 +21,6 @@ import com.amazonaws.services.simpleworkflow.flow.common.FlowHelpers;
 import com.amazonaws.services.simpleworkflow.flow.generic.ContinueAsNewWorkflowExecutionParameters;
 import com.amazonaws.services.simpleworkflow.model.ChildPolicy;
 import com.amazonaws.services.simpleworkflow.model.DecisionTask;
-import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
 import com.amazonaws.services.simpleworkflow.model.WorkflowExecution;
 import com.amazonaws.services.simpleworkflow.model.WorkflowExecutionStartedEventAttributes;
 import com.amazonaws.services.simpleworkflow.model.WorkflowType;
@@ -29,22 +28,37 @@ import com.amazonaws.services.simpleworkflow.model.WorkflowType;
 
 class WorkfowContextImpl implements WorkflowContext {
 
-    private final DecisionTask decisionTask;
+    private final WorkflowExecution workflowExecution;
+    private final WorkflowType workflowType;
+    private final WorkflowExecutionStartedEventAttributes workflowStartedEventAttributes;
     private boolean cancelRequested;
     private ContinueAsNewWorkflowExecutionParameters continueAsNewOnCompletion;
     
-    public WorkfowContextImpl(DecisionTask decisionTask) {
-        this.decisionTask = decisionTask;
+    /**
+     * @param events
+     *            events of the first history page
+     */
+    public WorkfowContextImpl(DecisionTask decisionTask, List<CompactHistoryEvent> events) {
+        // Captured eagerly as the decision task and its first history page are
+        // released by the poller while the context can outlive the decision task
+        this.workflowExecution = decisionTask.getWorkflowExecution();
+        this.workflowType = decisionTask.getWorkflowType();
+        if (events != null && !events.isEmpty()) {
+            workflowStartedEventAttributes = events.get(0).getWorkflowExecutionStartedEventAttributes();
+        }
+        else {
+            workflowStartedEventAttributes = null;
+        }
     }
     
     @Override
     public WorkflowExecution getWorkflowExecution() {
-        return decisionTask.getWorkflowExecution();
+        return workflowExecution;
     }
 
     @Override
     public WorkflowType getWorkflowType() {
-        return decisionTask.getWorkflowType();
+        return workflowType;
     }
 
     @Override
@@ -110,9 +124,7 @@ class WorkfowContextImpl implements WorkflowContext {
     }
 
     private WorkflowExecutionStartedEventAttributes getWorkflowStartedEventAttributes() {
-        HistoryEvent firstHistoryEvent = decisionTask.getEvents().get(0);
-        WorkflowExecutionStartedEventAttributes attributes = firstHistoryEvent.getWorkflowExecutionStartedEventAttributes();
-        return attributes;
+        return workflowStartedEventAttributes;
     }
 
     @Override